@@ -0,0 +1,79 @@
+package com.forces.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.forces.model.DeadZone;
+
+/**
+ * בדיקת הכלה של נקודה מול 1k/10k/100k אזורים: האינדקס המרחבי מול מעבר על כל האזורים.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeadZoneIndexBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    private int zones;
+
+    private List<DeadZone> all;
+    private DeadZoneIndex index;
+    private final double[] queryLats = new double[QUERIES];
+    private final double[] queryLngs = new double[QUERIES];
+    private int query;
+
+    @Setup
+    public void setup() {
+        // אזורים ברדיוס 100מ'-3ק"מ בפיזור על פני שטח בגודל ישראל בערך
+        Random random = new Random(42);
+        all = new ArrayList<>(zones);
+        for (int i = 0; i < zones; i++) {
+            all.add(new DeadZone("dz-" + i, 29.5 + random.nextDouble() * 3.8, 34.2 + random.nextDouble() * 1.7,
+                    100 + random.nextDouble() * 2900, "zone " + i, null));
+        }
+        index = DeadZoneIndex.build(all);
+
+        for (int i = 0; i < QUERIES; i++) {
+            queryLats[i] = 29.5 + random.nextDouble() * 3.8;
+            queryLngs[i] = 34.2 + random.nextDouble() * 1.7;
+        }
+    }
+
+    @Benchmark
+    public List<DeadZone> indexed() {
+        int i = query++ & (QUERIES - 1);
+        return index.findContaining(queryLats[i], queryLngs[i]);
+    }
+
+    @Benchmark
+    public List<DeadZone> linearScan() {
+        int i = query++ & (QUERIES - 1);
+        List<DeadZone> result = new ArrayList<>();
+        for (DeadZone zone : all) {
+            if (DeadZoneIndex.distance(queryLats[i], queryLngs[i], zone.getLatitude(), zone.getLongitude())
+                    <= zone.getRadius()) {
+                result.add(zone);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+package com.forces.algorithm;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * tick שלם של N כוחות: KalmanBank.updateAll מול מערך של אובייקטי KalmanFilter נפרדים.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KalmanBankBenchmark {
+
+    @Param({"50000"})
+    private int forces;
+
+    private int[] slots;
+    private double[] lats;
+    private double[] lngs;
+    private double[] dts;
+
+    private KalmanBank bank;
+    private KalmanFilter[] filters;
+    private int[] order;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        slots = new int[forces];
+        lats = new double[forces];
+        lngs = new double[forces];
+        dts = new double[forces];
+
+        bank = new KalmanBank(forces);
+        filters = new KalmanFilter[forces];
+        for (int i = 0; i < forces; i++) {
+            slots[i] = bank.allocate();
+            filters[i] = new KalmanFilter();
+            lats[i] = 31 + random.nextDouble() * 2;
+            lngs[i] = 34 + random.nextDouble();
+            dts[i] = 1.0;
+        }
+
+        // סדר גישה אקראי לאובייקטים - מדמה פילטרים שפוזרו ב-heap לאורך זמן
+        order = new int[forces];
+        for (int i = 0; i < forces; i++) {
+            order[i] = i;
+        }
+        for (int i = forces - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+    }
+
+    @Benchmark
+    public KalmanBank bankUpdateAll() {
+        bank.updateAll(slots, lats, lngs, dts);
+        return bank;
+    }
+
+    @Benchmark
+    public KalmanFilter[] filterPerForce() {
+        for (int i = 0; i < forces; i++) {
+            filters[order[i]].update(lats[i], lngs[i], dts[i]);
+        }
+        return filters;
+    }
+}
@@ -0,0 +1,63 @@
+package com.forces.algorithm;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * השוואת KalmanFilter (חשבון על פרימיטיביים, ללא הקצאות) מול המימוש המטריציוני המקורי.
+ * להרצה עם -prof gc כדי לקבל גם gc.alloc.rate.norm (bytes/op).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KalmanFilterBenchmark {
+
+    private static final int TRACK_LENGTH = 1024;
+
+    private final double[] lats = new double[TRACK_LENGTH];
+    private final double[] lngs = new double[TRACK_LENGTH];
+
+    private KalmanFilter filter;
+    private MatrixKalmanFilter matrixFilter;
+    private int index;
+
+    @Setup
+    public void setup() {
+        // מסלול קווי עם רעש קטן סביב תל אביב
+        Random random = new Random(42);
+        for (int i = 0; i < TRACK_LENGTH; i++) {
+            lats[i] = 32.0853 + i * 1e-5 + random.nextGaussian() * 1e-6;
+            lngs[i] = 34.7818 + i * 2e-5 + random.nextGaussian() * 1e-6;
+        }
+        filter = new KalmanFilter();
+        matrixFilter = new MatrixKalmanFilter();
+    }
+
+    @Benchmark
+    public KalmanFilter flatUpdate() {
+        int i = index++ & (TRACK_LENGTH - 1);
+        filter.update(lats[i], lngs[i], 1.0);
+        return filter;
+    }
+
+    @Benchmark
+    public MatrixKalmanFilter matrixUpdate() {
+        int i = index++ & (TRACK_LENGTH - 1);
+        matrixFilter.update(lats[i], lngs[i], 1.0);
+        return matrixFilter;
+    }
+}
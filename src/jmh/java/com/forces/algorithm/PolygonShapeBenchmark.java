@@ -0,0 +1,81 @@
+package com.forces.algorithm;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * בדיקת הכלה בפוליגון עם 16/1k/10k קודקודים: PolygonShape (רשת צלעות) מול ray casting
+ * על כל הצלעות. הנקודות מפוזרות בתיבת התחימה של הפוליגון.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PolygonShapeBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"16", "1000", "10000"})
+    private int vertices;
+
+    private double[] polygon;
+    private PolygonShape shape;
+    private final double[] queryLats = new double[QUERIES];
+    private final double[] queryLngs = new double[QUERIES];
+    private int query;
+
+    @Setup
+    public void setup() {
+        // פוליגון לא קמור ("כוכב") ברדיוס 5-15 ק"מ בערך
+        Random random = new Random(42);
+        polygon = new double[vertices * 2];
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double radius = 0.05 + random.nextDouble() * 0.1;
+            polygon[i * 2] = 32 + radius * Math.sin(angle);
+            polygon[i * 2 + 1] = 34.8 + radius * Math.cos(angle);
+        }
+        shape = new PolygonShape(polygon);
+
+        for (int i = 0; i < QUERIES; i++) {
+            queryLats[i] = shape.minLat + random.nextDouble() * (shape.maxLat - shape.minLat);
+            queryLngs[i] = shape.minLng + random.nextDouble() * (shape.maxLng - shape.minLng);
+        }
+    }
+
+    @Benchmark
+    public boolean prepared() {
+        int i = query++ & (QUERIES - 1);
+        return shape.contains(queryLats[i], queryLngs[i]);
+    }
+
+    @Benchmark
+    public boolean rayCast() {
+        int q = query++ & (QUERIES - 1);
+        double lat = queryLats[q];
+        double lng = queryLngs[q];
+        boolean inside = false;
+        for (int i = 0, j = vertices - 1; i < vertices; j = i++) {
+            double latI = polygon[i * 2], lngI = polygon[i * 2 + 1];
+            double latJ = polygon[j * 2], lngJ = polygon[j * 2 + 1];
+            if ((latI > lat) != (latJ > lat) && lng < lngI + (lat - latI) * (lngJ - lngI) / (latJ - latI)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
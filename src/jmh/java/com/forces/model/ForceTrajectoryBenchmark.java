@@ -0,0 +1,77 @@
+package com.forces.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ForceTrajectory בקיבולת מלאה: הוספה (עם פינוי), מהירות ממוצעת וכיוון.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ForceTrajectoryBenchmark {
+
+    private static final int TRACK_LENGTH = 1024;
+
+    @Param({"50", "5000"})
+    private int capacity;
+
+    private final double[] lats = new double[TRACK_LENGTH];
+    private final double[] lngs = new double[TRACK_LENGTH];
+
+    private ForceTrajectory trajectory;
+    private long timestamp;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < TRACK_LENGTH; i++) {
+            lats[i] = 32.0853 + i * 1e-5 + random.nextGaussian() * 1e-6;
+            lngs[i] = 34.7818 + i * 2e-5 + random.nextGaussian() * 1e-6;
+        }
+
+        // מילוי עד הקיבולת, כך שכל הוספה בבנצ'מרק גם מפנה נקודה
+        trajectory = new ForceTrajectory("force-1", capacity);
+        for (int i = 0; i < capacity; i++) {
+            addNext();
+        }
+    }
+
+    @Benchmark
+    public ForceTrajectory addLocationAtCapacity() {
+        addNext();
+        return trajectory;
+    }
+
+    @Benchmark
+    public double averageSpeed() {
+        return trajectory.getAverageSpeed();
+    }
+
+    @Benchmark
+    public double currentHeading() {
+        return trajectory.getCurrentHeading();
+    }
+
+    private void addNext() {
+        int i = index++ & (TRACK_LENGTH - 1);
+        timestamp += 1000;
+        trajectory.addLocation(lats[i], lngs[i], timestamp);
+    }
+}
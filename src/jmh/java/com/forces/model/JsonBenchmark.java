@@ -0,0 +1,132 @@
+package com.forces.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * סידור ופענוח JSON של ForceLocation ו-PredictionResult (ללא INDENT_OUTPUT),
+ * ולהשוואה CBOR ל-ForceLocation ו-LocationFrame מול JSON ל-batch של FRAME_SIZE מיקומים.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonBenchmark {
+
+    private static final int FRAME_SIZE = 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+    private ObjectWriter locationWriter;
+    private ObjectReader locationReader;
+    private ObjectWriter predictionWriter;
+    private ObjectReader predictionReader;
+    private ObjectWriter locationCborWriter;
+    private ObjectReader locationCborReader;
+
+    private ForceLocation location;
+    private byte[] locationJson;
+    private PredictionResult prediction;
+    private byte[] predictionJson;
+    private byte[] locationCbor;
+    private List<ForceLocation> frame;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        locationWriter = objectMapper.writerFor(ForceLocation.class);
+        locationReader = objectMapper.readerFor(ForceLocation.class);
+        predictionWriter = objectMapper.writerFor(PredictionResult.class);
+        predictionReader = objectMapper.readerFor(PredictionResult.class);
+
+        location = new ForceLocation("force-17", 32.0853, 34.7818, "infantry", "Alpha Company");
+        locationJson = locationWriter.writeValueAsBytes(location);
+
+        locationCborWriter = cborMapper.writerFor(ForceLocation.class);
+        locationCborReader = cborMapper.readerFor(ForceLocation.class);
+        locationCbor = locationCborWriter.writeValueAsBytes(location);
+
+        frame = new ArrayList<>(FRAME_SIZE);
+        for (int i = 0; i < FRAME_SIZE; i++) {
+            ForceLocation member = new ForceLocation("force-" + i, 32.0853 + i * 1e-3, 34.7818 + i * 1e-3,
+                    "infantry", "Alpha Company");
+            member.setTimestamp(1_700_000_000_000L + i * 37L);
+            frame.add(member);
+        }
+
+        prediction = new PredictionResult();
+        prediction.setForceId("force-17");
+        prediction.setCurrentPosition(new PredictionResult.Position(32.0853, 34.7818, 1_700_000_000_000L));
+        List<PredictionResult.Position> path = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            path.add(new PredictionResult.Position(32.0853 + i * 1e-4, 34.7818 + i * 2e-4,
+                    1_700_000_000_000L + i * 6000L));
+        }
+        prediction.setPredictedPath(path);
+        prediction.setSpeed(4.2);
+        prediction.setHeading(63.0);
+        prediction.setConfidence(1.0);
+        predictionJson = predictionWriter.writeValueAsBytes(prediction);
+    }
+
+    @Benchmark
+    public byte[] serializeLocation() throws JsonProcessingException {
+        return locationWriter.writeValueAsBytes(location);
+    }
+
+    @Benchmark
+    public ForceLocation deserializeLocation() throws IOException {
+        return locationReader.readValue(locationJson);
+    }
+
+    @Benchmark
+    public byte[] serializePrediction() throws JsonProcessingException {
+        return predictionWriter.writeValueAsBytes(prediction);
+    }
+
+    @Benchmark
+    public PredictionResult deserializePrediction() throws IOException {
+        return predictionReader.readValue(predictionJson);
+    }
+
+    @Benchmark
+    public byte[] serializeLocationCbor() throws JsonProcessingException {
+        return locationCborWriter.writeValueAsBytes(location);
+    }
+
+    @Benchmark
+    public ForceLocation deserializeLocationCbor() throws IOException {
+        return locationCborReader.readValue(locationCbor);
+    }
+
+    @Benchmark
+    public byte[] serializeFrameJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(frame);
+    }
+
+    @Benchmark
+    public byte[] encodeFrameBinary() {
+        return LocationFrame.encode(frame);
+    }
+}
@@ -0,0 +1,22 @@
+package com.forces.service;
+
+import java.lang.reflect.Field;
+
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * עזר לבנצ'מרקים: חיווט שדות @Autowired בלי להרים Spring context
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {}
+
+    public static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException("No field " + fieldName + " on " + target.getClass());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
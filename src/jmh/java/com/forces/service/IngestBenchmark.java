@@ -0,0 +1,101 @@
+package com.forces.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.forces.metrics.TrackingMetrics;
+import com.forces.model.ForceLocation;
+import com.forces.model.ForceState;
+import com.forces.repository.ForceStateStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * תפוקת קליטה (fixes לשנייה): מיקום בודד לכל בקשה מול עדכון מרוכז.
+ * כולל פענוח JSON, ForceService ו-TrajectoryService - בלי HTTP ובלי WebSocket.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IngestBenchmark {
+
+    private static final int FIXES = 1000;
+    private static final int FORCES = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectReader locationReader = objectMapper.readerFor(ForceLocation.class);
+
+    private byte[][] singleBodies;
+    private byte[] batchBody;
+
+    private ForceService forceService;
+    private TrajectoryService trajectoryService;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        List<ForceLocation> locations = new ArrayList<>(FIXES);
+        singleBodies = new byte[FIXES][];
+        for (int i = 0; i < FIXES; i++) {
+            ForceLocation location = new ForceLocation("force-" + (i % FORCES),
+                    31 + random.nextDouble() * 2, 34 + random.nextDouble(), "infantry", "Unit " + (i % FORCES));
+            locations.add(location);
+            singleBodies[i] = objectMapper.writeValueAsBytes(location);
+        }
+        batchBody = objectMapper.writeValueAsBytes(locations);
+
+        ForceStateStore states = new ForceStateStore();
+        forceService = new ForceService();
+        Benchmarks.inject(forceService, "states", states);
+        trajectoryService = new TrajectoryService();
+        Benchmarks.inject(trajectoryService, "states", states);
+        Benchmarks.inject(trajectoryService, "metrics", new TrackingMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FIXES)
+    public ForceService perFix() throws IOException {
+        for (byte[] body : singleBodies) {
+            ForceLocation location = locationReader.readValue(body);
+            ForceState state = forceService.updateLocation(location);
+            trajectoryService.addLocation(state, location.getLatitude(), location.getLongitude());
+        }
+        return forceService;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FIXES)
+    public ForceService batch() throws IOException {
+        List<ForceLocation> chunk = new ArrayList<>(FIXES);
+        try (MappingIterator<ForceLocation> it = locationReader.readValues(new ByteArrayInputStream(batchBody))) {
+            while (it.hasNextValue()) {
+                chunk.add(it.nextValue());
+            }
+        }
+        ForceState[] states = forceService.updateLocations(chunk);
+        trajectoryService.addLocations(chunk, states);
+        return forceService;
+    }
+}
@@ -0,0 +1,89 @@
+package com.forces.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.forces.metrics.TrackingMetrics;
+import com.forces.model.BatchPredictionResult;
+import com.forces.model.PredictionResult;
+import com.forces.repository.ForceStateStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * TrajectoryService.predictTrajectory על כוחות עם היסטוריה מלאה (מהחיזוי השמור ובלעדיו),
+ * מול חיזוי מרוכז לכולם.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PredictionBenchmark {
+
+    private static final int FORCES = 256;
+
+    private TrajectoryService trajectoryService;
+    private ForceStateStore states;
+    private final String[] forceIds = new String[FORCES];
+    private List<String> forceIdList;
+    private int next;
+
+    @Setup
+    public void setup() {
+        trajectoryService = new TrajectoryService();
+        states = new ForceStateStore();
+        Benchmarks.inject(trajectoryService, "states", states);
+        Benchmarks.inject(trajectoryService, "metrics", new TrackingMetrics(new SimpleMeterRegistry()));
+
+        Random random = new Random(42);
+        for (int f = 0; f < FORCES; f++) {
+            forceIds[f] = "force-" + f;
+            double lat = 31 + random.nextDouble() * 2;
+            double lng = 34 + random.nextDouble();
+            for (int i = 0; i < 60; i++) {
+                lat += 1e-4;
+                lng += 2e-4;
+                trajectoryService.addLocation(forceIds[f], lat, lng);
+            }
+        }
+        forceIdList = Arrays.asList(forceIds);
+    }
+
+    // אין מדידות חדשות בין הקריאות - מגיע מהחיזוי השמור
+    @Benchmark
+    public PredictionResult predictTrajectory() {
+        String forceId = forceIds[next++ & (FORCES - 1)];
+        return trajectoryService.predictTrajectory(forceId, 60);
+    }
+
+    // כאילו הגיעה מדידה חדשה לפני כל קריאה - חישוב מלא
+    @Benchmark
+    public PredictionResult predictTrajectoryUncached() {
+        String forceId = forceIds[next++ & (FORCES - 1)];
+        states.get(forceId).invalidatePredictions();
+        return trajectoryService.predictTrajectory(forceId, 60);
+    }
+
+    // כל הכוחות בבקשה אחת - הזמן והקצאות מנורמלים לכוח
+    @Benchmark
+    @OperationsPerInvocation(FORCES)
+    public BatchPredictionResult predictBatch() {
+        return trajectoryService.predictTrajectories(forceIdList, 60);
+    }
+}
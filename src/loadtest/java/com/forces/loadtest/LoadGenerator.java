@@ -0,0 +1,289 @@
+package com.forces.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.forces.model.ForceLocation;
+
+/**
+ * מחולל עומס headless: N כוחות מדומים שולחים POST ל-/api/forces/update בקצב יעד,
+ * ומנויי STOMP מודדים את הזמן עד שהמיקום מגיע ב-/topic/locations.
+ * בסוף מודפסים throughput, אחוזוני latency (p50/p99/p999) וקצב ההקצאות בשרת
+ * (מ-jvm.gc.memory.allocated של actuator).
+ *
+ * mvn -Ploadtest compile exec:exec -Dloadtest.args="--forces 5000 --rate 10000 --duration 120"
+ */
+public class LoadGenerator {
+
+    // מיקום אחרון שנשלח לכל כוח - לזיהוי שלו ב-/topic/locations
+    static final class Sent {
+        final long timestamp;
+        final long nanos;
+
+        Sent(long timestamp, long nanos) {
+            this.timestamp = timestamp;
+            this.nanos = nanos;
+        }
+    }
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final Options options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper bodyMapper;
+    private final String contentType;
+    private final HttpClient httpClient;
+    private final URI updateUri;
+
+    private final Map<String, Sent> inFlight = new ConcurrentHashMap<>();
+    private final Histogram httpLatency = new ConcurrentHistogram(3);
+    private final Histogram endToEndLatency = new ConcurrentHistogram(3);
+    private final List<LocationSubscriber> subscribers = new ArrayList<>();
+
+    private final Semaphore inFlightPermits;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean recording;
+
+    LoadGenerator(Options options) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.updateUri = URI.create(options.url + "/api/forces/update");
+        this.inFlightPermits = new Semaphore(options.maxInFlight);
+        this.bodyMapper = options.cbor ? new ObjectMapper(new CBORFactory()) : objectMapper;
+        this.contentType = options.cbor ? "application/cbor" : "application/json";
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        new LoadGenerator(options).run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        System.out.printf("🚀 Load test: %s, %d forces, target %d updates/s, %ds (+%ds warmup), %d %s subscriber(s), %s ingest%n",
+                options.url, options.forces, options.rate, options.duration, options.warmup, options.subscribers,
+                options.binary ? "binary" : "JSON", options.cbor ? "CBOR" : "JSON");
+
+        Random random = new Random(options.seed);
+        SimulatedForce[] forces = new SimulatedForce[options.forces];
+        for (int i = 0; i < forces.length; i++) {
+            forces[i] = new SimulatedForce(i, 32.0853, 34.7818, 0.5, random);
+        }
+
+        for (int i = 0; i < options.subscribers; i++) {
+            LocationSubscriber subscriber = new LocationSubscriber(inFlight, endToEndLatency);
+            subscriber.connect(options.url, options.binary);
+            subscribers.add(subscriber);
+        }
+        System.out.println("🔌 STOMP subscribers connected");
+
+        long start = System.nanoTime();
+        long warmupEnd = start + TimeUnit.SECONDS.toNanos(options.warmup);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(options.duration);
+        double allocatedBefore = Double.NaN;
+        long measuredFrom = warmupEnd;
+
+        // לולאה פתוחה: בכל tick נשלחים כל העדכונים שהגיע זמנם לפי הקצב
+        long due = 0;
+        int next = 0;
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= end) {
+                break;
+            }
+            if (!recording && now >= warmupEnd) {
+                allocatedBefore = readAllocatedBytes();
+                measuredFrom = System.nanoTime();
+                setRecording(true);
+            }
+
+            long target = (long) ((now - start) / 1e9 * options.rate);
+            while (due < target) {
+                SimulatedForce force = forces[next];
+                next = (next + 1) % forces.length;
+                due++;
+                send(force);
+            }
+            TimeUnit.NANOSECONDS.sleep(TICK_NANOS);
+        }
+
+        long measuredNanos = System.nanoTime() - measuredFrom;
+
+        // המתנה לתשובות ול-frames האחרונים
+        inFlightPermits.tryAcquire(options.maxInFlight, 5, TimeUnit.SECONDS);
+        TimeUnit.MILLISECONDS.sleep(500);
+        setRecording(false);
+        double allocatedAfter = readAllocatedBytes();
+
+        report(measuredNanos / 1e9, allocatedAfter - allocatedBefore);
+        subscribers.forEach(LocationSubscriber::disconnect);
+    }
+
+    private void send(SimulatedForce force) throws Exception {
+        // מעבר למגבלת הבקשות הפתוחות השולח ממתין - הקצב בפועל יירד מהיעד ויופיע בדוח
+        inFlightPermits.acquire();
+
+        long sendNanos = System.nanoTime();
+        ForceLocation location = force.move(sendNanos);
+        byte[] body = bodyMapper.writeValueAsBytes(location);
+        inFlight.put(force.getId(), new Sent(location.getTimestamp(), sendNanos));
+
+        HttpRequest request = HttpRequest.newBuilder(updateUri)
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", contentType)
+                .header("Accept", contentType)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        boolean measured = recording;
+        if (measured) {
+            sent.increment();
+        }
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    inFlightPermits.release();
+                    if (!measured) {
+                        return;
+                    }
+                    if (error == null && response.statusCode() == 200) {
+                        ok.increment();
+                        httpLatency.recordValue(Math.max(1, (System.nanoTime() - sendNanos) / 1000));
+                    } else {
+                        errors.increment();
+                    }
+                });
+    }
+
+    private void setRecording(boolean recording) {
+        this.recording = recording;
+        subscribers.forEach(subscriber -> subscriber.setRecording(recording));
+    }
+
+    /**
+     * סך הבייטים שהוקצו בשרת מאז שעלה, או NaN אם actuator לא זמין
+     */
+    private double readAllocatedBytes() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create(options.url + "/actuator/metrics/jvm.gc.memory.allocated"))
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return Double.NaN;
+            }
+            JsonNode measurements = objectMapper.readTree(response.body()).path("measurements");
+            return measurements.path(0).path("value").asDouble(Double.NaN);
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    private void report(double seconds, double allocatedBytes) {
+        long frames = 0;
+        long locations = 0;
+        for (LocationSubscriber subscriber : subscribers) {
+            frames += subscriber.getFrames();
+            locations += subscriber.getLocations();
+        }
+
+        System.out.println();
+        System.out.printf("📊 Results over %.1fs%n", seconds);
+        System.out.printf("   HTTP      sent %d, ok %d, errors %d -> %.0f updates/s (target %d)%n",
+                sent.sum(), ok.sum(), errors.sum(), ok.sum() / seconds, options.rate);
+        printLatency("HTTP", httpLatency);
+        System.out.printf("   STOMP     %d frames, %d locations -> %.1f frames/s, %.0f locations/s per subscriber%n",
+                frames, locations, frames / seconds / subscribers.size(), locations / seconds / subscribers.size());
+        printLatency("E2E", endToEndLatency);
+        if (Double.isNaN(allocatedBytes)) {
+            System.out.println("   Server    allocation rate n/a (is /actuator/metrics exposed?)");
+        } else {
+            double perSecond = allocatedBytes / seconds;
+            System.out.printf("   Server    allocated %.1f MB/s, %.0f bytes per accepted update%n",
+                    perSecond / (1024 * 1024), ok.sum() == 0 ? 0 : allocatedBytes / ok.sum());
+        }
+    }
+
+    private static void printLatency(String label, Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            System.out.printf("   %-9s no samples%n", label);
+            return;
+        }
+        System.out.printf("   %-9s p50 %.2fms  p99 %.2fms  p999 %.2fms  max %.2fms  (n=%d)%n", label,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0,
+                histogram.getTotalCount());
+    }
+
+    static final class Options {
+        String url = "http://localhost:8080";
+        int forces = 1000;
+        int rate = 2000;
+        int duration = 60;
+        int warmup = 10;
+        int subscribers = 1;
+        int maxInFlight = 512;
+        long seed = 42;
+        boolean cbor;
+        boolean binary;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                switch (args[i]) {
+                    case "--cbor" -> {
+                        options.cbor = true;
+                        continue;
+                    }
+                    case "--binary" -> {
+                        options.binary = true;
+                        continue;
+                    }
+                    case "--url" -> options.url = stripSlash(value);
+                    case "--forces" -> options.forces = Integer.parseInt(value);
+                    case "--rate" -> options.rate = Integer.parseInt(value);
+                    case "--duration" -> options.duration = Integer.parseInt(value);
+                    case "--warmup" -> options.warmup = Integer.parseInt(value);
+                    case "--subscribers" -> options.subscribers = Integer.parseInt(value);
+                    case "--max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                    case "--seed" -> options.seed = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]
+                            + " (expected --url, --forces, --rate, --duration, --warmup,"
+                            + " --subscribers, --max-in-flight, --seed, --cbor, --binary)");
+                }
+                i++;
+            }
+            return options;
+        }
+
+        private static String stripSlash(String url) {
+            return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.forces.loadtest;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import com.forces.model.ForceLocation;
+import com.forces.model.LocationFrame;
+
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+
+/**
+ * מנוי STOMP ל-/topic/locations (דרך SockJS, כמו הדפדפן) או ל-/topic/locations.bin שמודד זמן מקצה לקצה:
+ * מרגע שליחת ה-POST ועד שהמיקום מגיע ב-frame. מיקום מזוהה לפי id + timestamp.
+ */
+class LocationSubscriber {
+
+    // frame אחד מכיל את כל הכוחות שזזו ב-tick, ולכן יכול להיות גדול
+    private static final int MAX_MESSAGE_SIZE = 64 * 1024 * 1024;
+
+    private final Map<String, LoadGenerator.Sent> inFlight;
+    private final Histogram latency;
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder locations = new LongAdder();
+
+    private volatile boolean recording;
+    private StompSession session;
+
+    LocationSubscriber(Map<String, LoadGenerator.Sent> inFlight, Histogram latency) {
+        this.inFlight = inFlight;
+        this.latency = latency;
+    }
+
+    /**
+     * binary = false: SockJS ל-/ws ו-/topic/locations (JSON), כמו הדפדפן.
+     * binary = true: WebSocket ישיר ל-/ws-native ו-/topic/locations.bin (LocationFrame).
+     */
+    void connect(String baseUrl, boolean binary) throws Exception {
+        WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+        container.setDefaultMaxTextMessageBufferSize(MAX_MESSAGE_SIZE);
+        container.setDefaultMaxBinaryMessageBufferSize(MAX_MESSAGE_SIZE);
+        StandardWebSocketClient webSocketClient = new StandardWebSocketClient(container);
+
+        WebSocketStompClient stompClient = binary
+                ? new WebSocketStompClient(webSocketClient)
+                : new WebSocketStompClient(new SockJsClient(List.of(new WebSocketTransport(webSocketClient))));
+        stompClient.setMessageConverter(binary
+                ? new ByteArrayMessageConverter() : new MappingJackson2MessageConverter());
+        stompClient.setInboundMessageSizeLimit(MAX_MESSAGE_SIZE);
+
+        String url = binary ? baseUrl.replaceFirst("^http", "ws") + "/ws-native" : baseUrl + "/ws";
+        session = stompClient.connectAsync(url, new StompSessionHandlerAdapter() {
+            @Override
+            public void handleTransportError(StompSession session, Throwable exception) {
+                System.err.println("❌ STOMP transport error: " + exception.getMessage());
+            }
+        }).get(10, TimeUnit.SECONDS);
+
+        session.subscribe(binary ? "/topic/locations.bin" : "/topic/locations", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return binary ? byte[].class : ForceLocation[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                if (binary) {
+                    onFrame(LocationFrame.decode((byte[]) payload).toArray(new ForceLocation[0]));
+                } else {
+                    onFrame((ForceLocation[]) payload);
+                }
+            }
+        });
+    }
+
+    private void onFrame(ForceLocation[] frame) {
+        long now = System.nanoTime();
+        if (!recording) {
+            return;
+        }
+        frames.increment();
+        locations.add(frame.length);
+        for (ForceLocation location : frame) {
+            LoadGenerator.Sent sent = inFlight.get(location.getId());
+            if (sent != null && sent.timestamp == location.getTimestamp()) {
+                latency.recordValue(Math.max(1, (now - sent.nanos) / 1000));
+            }
+        }
+    }
+
+    void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    long getFrames() {
+        return frames.sum();
+    }
+
+    long getLocations() {
+        return locations.sum();
+    }
+
+    void disconnect() {
+        if (session != null && session.isConnected()) {
+            session.disconnect();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.forces.loadtest;
+
+import java.util.Random;
+
+import com.forces.model.ForceLocation;
+
+/**
+ * כוח מדומה שנע במסלול ריאליסטי: מהירות לפי סוג הכוח, כיוון שמשתנה בהדרגה
+ * ופניות חדות מדי פעם (כמו במצב "random" של simulator.html, אבל לפי זמן אמיתי).
+ */
+class SimulatedForce {
+
+    private static final String[] TYPES = {"infantry", "armor", "artillery", "other"};
+
+    // טווח מהירויות במטר לשנייה לכל סוג
+    private static final double[] MIN_SPEED = {0.8, 5.0, 3.0, 1.0};
+    private static final double[] MAX_SPEED = {2.0, 15.0, 10.0, 8.0};
+
+    private static final double METERS_PER_DEGREE = 6371000 * Math.PI / 180;
+
+    private final String id;
+    private final String type;
+    private final String name;
+    private final double speed;
+    private final Random random;
+
+    private double latitude;
+    private double longitude;
+    private double heading;
+    private long lastMoveNanos;
+    private long lastTimestamp;
+
+    SimulatedForce(int index, double centerLat, double centerLng, double spreadDegrees, Random random) {
+        int kind = index % TYPES.length;
+        this.id = "load-" + index;
+        this.type = TYPES[kind];
+        this.name = "Load " + index;
+        this.random = random;
+        this.speed = MIN_SPEED[kind] + random.nextDouble() * (MAX_SPEED[kind] - MIN_SPEED[kind]);
+        this.latitude = centerLat + (random.nextDouble() - 0.5) * spreadDegrees;
+        this.longitude = centerLng + (random.nextDouble() - 0.5) * spreadDegrees;
+        this.heading = random.nextDouble() * 360;
+        this.lastMoveNanos = System.nanoTime();
+    }
+
+    /**
+     * קידום הכוח לפי הזמן שעבר מהעדכון הקודם והחזרת המיקום לשליחה.
+     * חותמת הזמן עולה ממש בכל עדכון, כדי שאפשר יהיה לזהות אותו ב-/topic/locations.
+     */
+    synchronized ForceLocation move(long nowNanos) {
+        double dt = (nowNanos - lastMoveNanos) / 1e9;
+        lastMoveNanos = nowNanos;
+
+        heading += random.nextGaussian() * 5;
+        if (random.nextDouble() < 0.01) {
+            heading += (random.nextBoolean() ? 90 : -90);
+        }
+
+        double distance = speed * dt;
+        double rad = Math.toRadians(heading);
+        latitude += distance * Math.cos(rad) / METERS_PER_DEGREE;
+        longitude += distance * Math.sin(rad) / (METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+
+        ForceLocation location = new ForceLocation(id, latitude, longitude, type, name);
+        lastTimestamp = Math.max(location.getTimestamp(), lastTimestamp + 1);
+        location.setTimestamp(lastTimestamp);
+        return location;
+    }
+
+    String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,85 @@
+package com.forces.algorithm;
+
+/**
+ * מסדרון: כל הנקודות במרחק עד halfWidth מטרים מקו הנקודות (polyline).
+ * כל קטע נרשם ב-EdgeGrid לפי תיבת התחימה שלו מורחבת ב-halfWidth, כך שבדיקה מחשבת
+ * מרחק רק לקטעים של התא. המרחק מחושב בהטלה שטוחה סביב הנקודה - מדויק לרוחב של ק"מ בודדים.
+ */
+final class CorridorShape extends ZoneShape {
+
+    private static final int MAX_GRID_SIDE = 128;
+
+    private final double[] lats, lngs;
+    private final double halfWidth;
+    private final EdgeGrid grid;
+
+    CorridorShape(double[] vertices, double halfWidth) {
+        this(vertices, halfWidth, latMargin(halfWidth));
+    }
+
+    private CorridorShape(double[] vertices, double halfWidth, double latDelta) {
+        this(vertices, halfWidth, latDelta, bounds(vertices, latDelta));
+    }
+
+    private CorridorShape(double[] vertices, double halfWidth, double latDelta, double[] box) {
+        super(box[0], box[1], box[2], box[3]);
+        int n = vertices.length / 2;
+        this.lats = new double[n];
+        this.lngs = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = vertices[i * 2];
+            lngs[i] = vertices[i * 2 + 1];
+        }
+        this.halfWidth = halfWidth;
+
+        int side = Math.max(1, Math.min(MAX_GRID_SIDE, (int) Math.ceil(Math.sqrt(n))));
+        grid = new EdgeGrid(minLat, maxLat, minLng, maxLng, side, side);
+        double lngDelta = lngMargin(latDelta, minLat, maxLat);
+        for (int i = 0; i + 1 < n; i++) {
+            grid.add(i, Math.min(lats[i], lats[i + 1]) - latDelta, Math.max(lats[i], lats[i + 1]) + latDelta,
+                    Math.min(lngs[i], lngs[i + 1]) - lngDelta, Math.max(lngs[i], lngs[i + 1]) + lngDelta);
+        }
+        grid.trim();
+    }
+
+    @Override
+    boolean contains(double latitude, double longitude) {
+        int[] segments = grid.edges(grid.cell(latitude, longitude));
+        if (segments == null) {
+            return false;
+        }
+        double metersPerLng = DeadZoneIndex.METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        double limit = halfWidth * halfWidth;
+        for (int i : segments) {
+            // קצות הקטע ביחס לנקודה, במטרים
+            double ax = (lngs[i] - longitude) * metersPerLng;
+            double ay = (lats[i] - latitude) * DeadZoneIndex.METERS_PER_DEGREE;
+            double dx = (lngs[i + 1] - longitude) * metersPerLng - ax;
+            double dy = (lats[i + 1] - latitude) * DeadZoneIndex.METERS_PER_DEGREE - ay;
+            double length = dx * dx + dy * dy;
+            double t = length > 0 ? Math.max(0, Math.min(1, -(ax * dx + ay * dy) / length)) : 0;
+            double x = ax + t * dx;
+            double y = ay + t * dy;
+            if (x * x + y * y <= limit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // {minLat, maxLat, minLng, maxLng} של הנקודות, מורחב ברוחב המסדרון
+    private static double[] bounds(double[] vertices, double latDelta) {
+        double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+        double minLng = Double.POSITIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < vertices.length; i += 2) {
+            minLat = Math.min(minLat, vertices[i]);
+            maxLat = Math.max(maxLat, vertices[i]);
+            minLng = Math.min(minLng, vertices[i + 1]);
+            maxLng = Math.max(maxLng, vertices[i + 1]);
+        }
+        minLat -= latDelta;
+        maxLat += latDelta;
+        double lngDelta = lngMargin(latDelta, minLat, maxLat);
+        return new double[] {minLat, maxLat, minLng - lngDelta, maxLng + lngDelta};
+    }
+}
@@ -0,0 +1,253 @@
+package com.forces.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.forces.model.DeadZone;
+
+/**
+ * אינדקס מרחבי בלתי משתנה ל-Dead Zones: רשת תאים קבועה במעלות, כל אזור נרשם בכל תא
+ * שתיבת התחימה שלו חופפת. בדיקת נקודה ניגשת לתא אחד, מסננת לפי תיבת תחימה ורק אז
+ * בודקת הכלה מדויקת - O(1 + k) במקום מעבר על כל האזורים.
+ * כל אזור מוכן פעם אחת כ-ZoneShape (עיגול, פוליגון או מסדרון), כך שגם פוליגון עם אלפי
+ * קודקודים נבדק מול הצלעות של תא אחד ברשת משלו.
+ * עדכון יוצר אינדקס חדש (copy-on-write), כך שקריאות לא דורשות נעילה.
+ */
+public final class DeadZoneIndex {
+
+    public static final DeadZoneIndex EMPTY = build(Collections.emptyList());
+
+    // גודל תא ברשת (~5.5 ק"מ בקו רוחב)
+    private static final double CELL_SIZE_DEGREES = 0.05;
+
+    // אזור שמכסה יותר תאים מזה נשמר ברשימה נפרדת ונבדק רק לפי תיבת תחימה
+    private static final int MAX_CELLS_PER_ZONE = 256;
+
+    private static final int EARTH_RADIUS = 6371000;
+    static final double METERS_PER_DEGREE = EARTH_RADIUS * Math.PI / 180;
+
+    // מרווח ביטחון לתיבת התחימה, כדי שהסינון המקדים לא יפסול נקודה על השפה
+    static final double BOX_MARGIN = 1.01;
+
+    private final DeadZone[] zones;
+    private final ZoneShape[] shapes;
+    private final double[] minLat, maxLat, minLng, maxLng;
+
+    // טבלת hash פתוחה: מפתח תא -> אינדקסים של אזורים
+    private final long[] cellKeys;
+    private final int[][] cellZones;
+    private final int cellMask;
+
+    private final int[] largeZones;
+
+    // הצורות כבר מוכנות - נבנות רק תיבות התחימה וטבלת התאים, O(מספר התאים)
+    private DeadZoneIndex(DeadZone[] zones, ZoneShape[] shapes) {
+        int n = zones.length;
+        this.zones = zones;
+        this.shapes = shapes;
+        minLat = new double[n];
+        maxLat = new double[n];
+        minLng = new double[n];
+        maxLng = new double[n];
+
+        List<long[]> cellsPerZone = new ArrayList<>(n);
+        int[] large = new int[n];
+        int largeCount = 0;
+        int totalCells = 0;
+
+        for (int i = 0; i < n; i++) {
+            ZoneShape shape = shapes[i];
+            if (shape == null) {
+                // גיאומטריה לא תקינה (נשמרה לפני הבדיקה) - לא נרשם באף תא ולא מכיל אף נקודה
+                minLat[i] = maxLat[i] = minLng[i] = maxLng[i] = Double.NaN;
+                cellsPerZone.add(null);
+                continue;
+            }
+            minLat[i] = shape.minLat;
+            maxLat[i] = shape.maxLat;
+            minLng[i] = shape.minLng;
+            maxLng[i] = shape.maxLng;
+
+            long latCells = cell(maxLat[i]) - cell(minLat[i]) + 1;
+            long lngCells = cell(maxLng[i]) - cell(minLng[i]) + 1;
+            if (latCells * lngCells > MAX_CELLS_PER_ZONE) {
+                large[largeCount++] = i;
+                cellsPerZone.add(null);
+                continue;
+            }
+
+            long[] keys = new long[(int) (latCells * lngCells)];
+            int k = 0;
+            for (long r = cell(minLat[i]); r <= cell(maxLat[i]); r++) {
+                for (long c = cell(minLng[i]); c <= cell(maxLng[i]); c++) {
+                    keys[k++] = key(r, c);
+                }
+            }
+            cellsPerZone.add(keys);
+            totalCells += keys.length;
+        }
+        largeZones = Arrays.copyOf(large, largeCount);
+
+        int tableSize = Integer.highestOneBit(Math.max(16, totalCells * 2 - 1)) << 1;
+        cellKeys = new long[tableSize];
+        cellZones = new int[tableSize][];
+        cellMask = tableSize - 1;
+
+        for (int i = 0; i < n; i++) {
+            long[] keys = cellsPerZone.get(i);
+            if (keys == null) {
+                continue;
+            }
+            for (long key : keys) {
+                int slot = findSlot(key);
+                int[] current = cellZones[slot];
+                if (current == null) {
+                    cellKeys[slot] = key;
+                    cellZones[slot] = new int[] {i};
+                } else {
+                    int[] grown = Arrays.copyOf(current, current.length + 1);
+                    grown[current.length] = i;
+                    cellZones[slot] = grown;
+                }
+            }
+        }
+    }
+
+    public static DeadZoneIndex build(Collection<DeadZone> zones) {
+        DeadZone[] array = zones.toArray(new DeadZone[0]);
+        ZoneShape[] shapes = new ZoneShape[array.length];
+        for (int i = 0; i < array.length; i++) {
+            shapes[i] = ZoneShape.prepare(array[i]);
+        }
+        return new DeadZoneIndex(array, shapes);
+    }
+
+    /**
+     * האם הגיאומטריה של האזור תקינה: עיגול עם רדיוס חיובי, פוליגון עם 3 קודקודים לפחות,
+     * מסדרון עם 2 קודקודים לפחות ורוחב חיובי, וכל הקואורדינטות בטווח
+     */
+    public static boolean isValid(DeadZone zone) {
+        return ZoneShape.isValid(zone);
+    }
+
+    /**
+     * אינדקס חדש עם האזור (מחליף אזור קיים עם אותו id). רק האזור החדש מוכן מחדש -
+     * הצורות של שאר האזורים (כולל רשתות הצלעות) עוברות לאינדקס החדש כמו שהן
+     */
+    public DeadZoneIndex with(DeadZone zone) {
+        int existing = indexOf(zone.getId());
+        int n = existing < 0 ? zones.length + 1 : zones.length;
+        DeadZone[] updatedZones = Arrays.copyOf(zones, n);
+        ZoneShape[] updatedShapes = Arrays.copyOf(shapes, n);
+        int i = existing < 0 ? n - 1 : existing;
+        updatedZones[i] = zone;
+        updatedShapes[i] = ZoneShape.prepare(zone);
+        return new DeadZoneIndex(updatedZones, updatedShapes);
+    }
+
+    /**
+     * אינדקס חדש בלי האזור
+     */
+    public DeadZoneIndex without(String id) {
+        int existing = indexOf(id);
+        if (existing < 0) {
+            return this;
+        }
+        int n = zones.length - 1;
+        DeadZone[] updatedZones = new DeadZone[n];
+        ZoneShape[] updatedShapes = new ZoneShape[n];
+        System.arraycopy(zones, 0, updatedZones, 0, existing);
+        System.arraycopy(shapes, 0, updatedShapes, 0, existing);
+        System.arraycopy(zones, existing + 1, updatedZones, existing, n - existing);
+        System.arraycopy(shapes, existing + 1, updatedShapes, existing, n - existing);
+        return new DeadZoneIndex(updatedZones, updatedShapes);
+    }
+
+    /**
+     * כל האזורים שמכילים את הנקודה
+     */
+    public List<DeadZone> findContaining(double latitude, double longitude) {
+        List<DeadZone> result = new ArrayList<>();
+        forEachContaining(latitude, longitude, result::add);
+        return result;
+    }
+
+    public void forEachContaining(double latitude, double longitude, Consumer<DeadZone> action) {
+        int slot = findSlot(key(cell(latitude), cell(longitude)));
+        int[] candidates = cellZones[slot];
+        if (candidates != null) {
+            for (int i : candidates) {
+                test(i, latitude, longitude, action);
+            }
+        }
+        for (int i : largeZones) {
+            test(i, latitude, longitude, action);
+        }
+    }
+
+    public int size() {
+        return zones.length;
+    }
+
+    public List<DeadZone> getZones() {
+        return Collections.unmodifiableList(Arrays.asList(zones));
+    }
+
+    private int indexOf(String id) {
+        for (int i = 0; i < zones.length; i++) {
+            if (zones[i].getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void test(int i, double latitude, double longitude, Consumer<DeadZone> action) {
+        if (latitude < minLat[i] || latitude > maxLat[i] || longitude < minLng[i] || longitude > maxLng[i]) {
+            return;
+        }
+        if (shapes[i].contains(latitude, longitude)) {
+            action.accept(zones[i]);
+        }
+    }
+
+    private int findSlot(long key) {
+        int slot = (int) mix(key) & cellMask;
+        while (cellZones[slot] != null && cellKeys[slot] != key) {
+            slot = (slot + 1) & cellMask;
+        }
+        return slot;
+    }
+
+    private static long cell(double degrees) {
+        return (long) Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    private static long key(long latCell, long lngCell) {
+        return (latCell << 32) ^ (lngCell & 0xffffffffL);
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * מרחק בין שתי נקודות במטרים (Haversine)
+     */
+    public static double distance(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return EARTH_RADIUS * c;
+    }
+}
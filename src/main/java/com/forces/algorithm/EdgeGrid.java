@@ -0,0 +1,103 @@
+package com.forces.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * רשת תאים על תיבת התחימה של צורה אחת: לכל תא רשימת הצלעות (אינדקסים) שתיבת התחימה
+ * שלהן חופפת אותו. בדיקת נקודה ניגשת רק לצלעות של התא שלה.
+ */
+final class EdgeGrid {
+
+    // נקודת הייחוס בתוך כל תא - לא המרכז: אלכסון של תיבת התחימה (צלע נפוצה בפוליגון)
+    // עובר בדיוק במרכזי תאים, ואילו בשברים אי-רציונליים אף אלכסון לא עובר
+    private static final double REFERENCE_ROW = 0.41421356237309503; // sqrt(2) - 1
+    private static final double REFERENCE_COL = 0.5773502691896258;  // 1 / sqrt(3)
+
+    private final double minLat, minLng;
+    private final double cellLat, cellLng;
+    private final int rows, cols;
+
+    private final int[][] cells;
+    private final int[] counts;
+
+    EdgeGrid(double minLat, double maxLat, double minLng, double maxLng, int rows, int cols) {
+        this.minLat = minLat;
+        this.minLng = minLng;
+        this.rows = rows;
+        this.cols = cols;
+        // תיבה מנוונת (קו אופקי/אנכי) - תא ברוחב חיובי כדי שהחלוקה תהיה מוגדרת
+        this.cellLat = Math.max(maxLat - minLat, 1e-12) / rows;
+        this.cellLng = Math.max(maxLng - minLng, 1e-12) / cols;
+        this.cells = new int[rows * cols][];
+        this.counts = new int[rows * cols];
+    }
+
+    /**
+     * צלע נרשמת בכל התאים שתיבת התחימה שלה חופפת
+     */
+    void add(int edge, double edgeMinLat, double edgeMaxLat, double edgeMinLng, double edgeMaxLng) {
+        int lastRow = row(edgeMaxLat);
+        int lastCol = col(edgeMaxLng);
+        for (int r = row(edgeMinLat); r <= lastRow; r++) {
+            for (int c = col(edgeMinLng); c <= lastCol; c++) {
+                int cell = r * cols + c;
+                int[] edges = cells[cell];
+                int count = counts[cell];
+                if (edges == null) {
+                    edges = new int[4];
+                    cells[cell] = edges;
+                } else if (count == edges.length) {
+                    edges = Arrays.copyOf(edges, count * 2);
+                    cells[cell] = edges;
+                }
+                edges[count] = edge;
+                counts[cell] = count + 1;
+            }
+        }
+    }
+
+    // קיצוץ המערכים לגודלם אחרי הבנייה
+    void trim() {
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] != null && cells[cell].length != counts[cell]) {
+                cells[cell] = Arrays.copyOf(cells[cell], counts[cell]);
+            }
+        }
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    int cols() {
+        return cols;
+    }
+
+    // התא של נקודה בתוך התיבה (נקודה על השפה העליונה שייכת לתא האחרון)
+    int cell(double latitude, double longitude) {
+        return row(latitude) * cols + col(longitude);
+    }
+
+    /**
+     * הצלעות של התא, או null אם אין
+     */
+    int[] edges(int cell) {
+        return cells[cell];
+    }
+
+    double referenceLat(int cell) {
+        return minLat + (cell / cols + REFERENCE_ROW) * cellLat;
+    }
+
+    double referenceLng(int cell) {
+        return minLng + (cell % cols + REFERENCE_COL) * cellLng;
+    }
+
+    private int row(double latitude) {
+        return Math.max(0, Math.min(rows - 1, (int) ((latitude - minLat) / cellLat)));
+    }
+
+    private int col(double longitude) {
+        return Math.max(0, Math.min(cols - 1, (int) ((longitude - minLng) / cellLng)));
+    }
+}
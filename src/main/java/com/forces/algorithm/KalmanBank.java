@@ -0,0 +1,204 @@
+package com.forces.algorithm;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * אוסף Kalman Filters במבנה Struct-of-Arrays: המצב והקווריאנס של כל הכוחות נשמרים
+ * במערכים פרימיטיביים רציפים, לפי slot צפוף לכל כוח.
+ * החשבון משותף עם KalmanFilter (KalmanMath), והעמודות כאן הן מערכי ה-SoA עצמם.
+ *
+ * עדכון slot אינו דורש בלעדיות (כל כוח מעודכן ב-slot משלו), ולכן עדכונים וקריאות
+ * לוקחים read lock שמגן רק מפני החלפת המערכים בזמן הגדלה. הקצאה, שחרור והגדלה
+ * לוקחים write lock.
+ */
+public class KalmanBank {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    // מצב מלא של slot: x, y, vx, vy ואחריהם P שורה אחרי שורה
+    public static final int SLOT_STATE_SIZE = KalmanMath.STATE_SIZE;
+
+    private final StampedLock lock = new StampedLock();
+
+    // מצב וקווריאנס P: מערך לכל רכיב, לפי האינדקסים של KalmanMath
+    private double[][] state;
+
+    private int capacity;
+    private int nextSlot;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    public KalmanBank() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public KalmanBank(int initialCapacity) {
+        allocateArrays(Math.max(1, initialCapacity));
+    }
+
+    /**
+     * הקצאת slot חדש (או משוחרר) במצב ההתחלתי של הפילטר
+     */
+    public int allocate() {
+        long stamp = lock.writeLock();
+        try {
+            int slot;
+            if (freeCount > 0) {
+                slot = freeSlots[--freeCount];
+            } else {
+                if (nextSlot == capacity) {
+                    allocateArrays(capacity * 2);
+                }
+                slot = nextSlot++;
+            }
+            KalmanMath.init(state, slot);
+            return slot;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * שחרור slot לשימוש חוזר
+     */
+    public void release(int slot) {
+        long stamp = lock.writeLock();
+        try {
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * שחרור כל ה-slots
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            nextSlot = 0;
+            freeCount = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * החזרת slot קיים למצב ההתחלתי של הפילטר
+     */
+    public void reset(int slot) {
+        long stamp = lock.readLock();
+        try {
+            KalmanMath.init(state, slot);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void update(int slot, double latitude, double longitude, double deltaTime) {
+        long stamp = lock.readLock();
+        try {
+            KalmanMath.step(state, slot, latitude, longitude, deltaTime);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * עדכון של כל הכוחות ב-tick אחד: מעבר יחיד על המערכים במקום מצביע לכל כוח.
+     * slots ממוינים בסדר עולה נותנים גישה סדרתית לזיכרון.
+     */
+    public void updateAll(int[] slots, double[] lats, double[] lngs, double[] dts) {
+        updateAll(slots, lats, lngs, dts, slots.length);
+    }
+
+    public void updateAll(int[] slots, double[] lats, double[] lngs, double[] dts, int count) {
+        long stamp = lock.readLock();
+        try {
+            for (int i = 0; i < count; i++) {
+                KalmanMath.step(state, slots[i], lats[i], lngs[i], dts[i]);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public double[] predictFuturePosition(int slot, double secondsAhead) {
+        long stamp = lock.readLock();
+        try {
+            return new double[] {
+                state[KalmanMath.X][slot] + state[KalmanMath.VX][slot] * secondsAhead,
+                state[KalmanMath.Y][slot] + state[KalmanMath.VY][slot] * secondsAhead
+            };
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public double[] getState(int slot) {
+        long stamp = lock.readLock();
+        try {
+            return new double[] {state[KalmanMath.X][slot], state[KalmanMath.Y][slot],
+                    state[KalmanMath.VX][slot], state[KalmanMath.VY][slot]};
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * העתקת המצב והקווריאנס של ה-slot ל-target (SLOT_STATE_SIZE ערכים) - לשמירת snapshot
+     */
+    public void exportSlot(int s, double[] target) {
+        long stamp = lock.readLock();
+        try {
+            for (int k = 0; k < SLOT_STATE_SIZE; k++) {
+                target[k] = state[k][s];
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * שחזור המצב והקווריאנס של ה-slot מ-source (בפורמט של exportSlot)
+     */
+    public void importSlot(int s, double[] source) {
+        long stamp = lock.readLock();
+        try {
+            for (int k = 0; k < SLOT_STATE_SIZE; k++) {
+                state[k][s] = source[k];
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * מספר ה-slots בשימוש
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return nextSlot - freeCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void allocateArrays(int newCapacity) {
+        double[][] grown = new double[SLOT_STATE_SIZE][];
+        for (int k = 0; k < SLOT_STATE_SIZE; k++) {
+            grown[k] = state == null ? new double[newCapacity] : Arrays.copyOf(state[k], newCapacity);
+        }
+        state = grown;
+        capacity = newCapacity;
+    }
+}
@@ -0,0 +1,137 @@
+package com.forces.algorithm;
+
+/**
+ * החשבון המשותף של Kalman Filter למודל מהירות קבועה (KalmanFilter ו-KalmanBank).
+ * המצב שמור בעמודות: s[k][i] הוא רכיב k של פילטר i - x, y, vx, vy ואחריהם P שורה אחרי שורה.
+ * סדר הפעולות זהה למימוש המטריציוני המקורי (MatrixKalmanFilter בבנצ'מרקים), כך שהתוצאות זהות.
+ */
+final class KalmanMath {
+
+    static final int X = 0, Y = 1, VX = 2, VY = 3;
+    static final int P00 = 4, P01 = 5, P02 = 6, P03 = 7;
+    static final int P10 = 8, P11 = 9, P12 = 10, P13 = 11;
+    static final int P20 = 12, P21 = 13, P22 = 14, P23 = 15;
+    static final int P30 = 16, P31 = 17, P32 = 18, P33 = 19;
+
+    static final int STATE_SIZE = 20;
+
+    private static final double INITIAL_COVARIANCE = 1000;
+
+    // רעש תהליך (אלכסון Q)
+    private static final double Q_POSITION = 0.1;
+    private static final double Q_VELOCITY = 0.5;
+
+    // רעש מדידה (אלכסון R)
+    private static final double R_MEASUREMENT = 10;
+
+    private KalmanMath() {
+    }
+
+    static double[][] newState(int capacity) {
+        double[][] s = new double[STATE_SIZE][];
+        for (int k = 0; k < STATE_SIZE; k++) {
+            s[k] = new double[capacity];
+        }
+        return s;
+    }
+
+    /**
+     * מצב התחלתי: הכל אפס, אלכסון P = INITIAL_COVARIANCE
+     */
+    static void init(double[][] s, int i) {
+        for (int k = 0; k < STATE_SIZE; k++) {
+            s[k][i] = 0;
+        }
+        s[P00][i] = INITIAL_COVARIANCE;
+        s[P11][i] = INITIAL_COVARIANCE;
+        s[P22][i] = INITIAL_COVARIANCE;
+        s[P33][i] = INITIAL_COVARIANCE;
+    }
+
+    /**
+     * predict + correct לפילטר i: x = F·x, P = F·P·Fᵀ + Q, ואז K = P·Hᵀ·S⁻¹, x = x + K·(z - H·x), P = (I - K·H)·P
+     */
+    static void step(double[][] s, int i, double latitude, double longitude, double dt) {
+        double sx = s[X][i], sy = s[Y][i], svx = s[VX][i], svy = s[VY][i];
+        double a00 = s[P00][i], a01 = s[P01][i], a02 = s[P02][i], a03 = s[P03][i];
+        double a10 = s[P10][i], a11 = s[P11][i], a12 = s[P12][i], a13 = s[P13][i];
+        double a20 = s[P20][i], a21 = s[P21][i], a22 = s[P22][i], a23 = s[P23][i];
+        double a30 = s[P30][i], a31 = s[P31][i], a32 = s[P32][i], a33 = s[P33][i];
+
+        // predict
+        sx = sx + dt * svx;
+        sy = sy + dt * svy;
+
+        // FP = F·P
+        double fp00 = a00 + dt * a20, fp01 = a01 + dt * a21, fp02 = a02 + dt * a22, fp03 = a03 + dt * a23;
+        double fp10 = a10 + dt * a30, fp11 = a11 + dt * a31, fp12 = a12 + dt * a32, fp13 = a13 + dt * a33;
+
+        // P = FP·Fᵀ + Q
+        a00 = (fp00 + fp02 * dt) + Q_POSITION;
+        a01 = (fp01 + fp03 * dt);
+        a02 = fp02;
+        a03 = fp03;
+        a10 = (fp10 + fp12 * dt);
+        a11 = (fp11 + fp13 * dt) + Q_POSITION;
+        a12 = fp12;
+        a13 = fp13;
+        a20 = a20 + a22 * dt;
+        a21 = a21 + a23 * dt;
+        a22 = a22 + Q_VELOCITY;
+        a30 = a30 + a32 * dt;
+        a31 = a31 + a33 * dt;
+        a33 = a33 + Q_VELOCITY;
+
+        // correct: S = H·P·Hᵀ + R
+        double a = a00 + R_MEASUREMENT;
+        double b = a01;
+        double c = a10;
+        double d = a11 + R_MEASUREMENT;
+
+        double s00, s01, s10, s11;
+        double det = a * d - b * c;
+        if (Math.abs(det) < 1e-10) {
+            s00 = 1; s01 = 0;
+            s10 = 0; s11 = 1;
+        } else {
+            s00 = d / det;  s01 = -b / det;
+            s10 = -c / det; s11 = a / det;
+        }
+
+        // K = P·Hᵀ·S⁻¹
+        double k00 = a00 * s00 + a01 * s10, k01 = a00 * s01 + a01 * s11;
+        double k10 = a10 * s00 + a11 * s10, k11 = a10 * s01 + a11 * s11;
+        double k20 = a20 * s00 + a21 * s10, k21 = a20 * s01 + a21 * s11;
+        double k30 = a30 * s00 + a31 * s10, k31 = a30 * s01 + a31 * s11;
+
+        double innLat = latitude - sx;
+        double innLng = longitude - sy;
+        s[X][i] = sx + (k00 * innLat + k01 * innLng);
+        s[Y][i] = sy + (k10 * innLat + k11 * innLng);
+        s[VX][i] = svx + (k20 * innLat + k21 * innLng);
+        s[VY][i] = svy + (k30 * innLat + k31 * innLng);
+
+        // P = (I - K·H)·P - רק שתי העמודות הראשונות של K·H אינן אפס
+        double i00 = 1 - k00, i01 = -k01;
+        double i10 = -k10,    i11 = 1 - k11;
+        double i20 = -k20,    i21 = -k21;
+        double i30 = -k30,    i31 = -k31;
+
+        s[P00][i] = i00 * a00 + i01 * a10;
+        s[P01][i] = i00 * a01 + i01 * a11;
+        s[P02][i] = i00 * a02 + i01 * a12;
+        s[P03][i] = i00 * a03 + i01 * a13;
+        s[P10][i] = i10 * a00 + i11 * a10;
+        s[P11][i] = i10 * a01 + i11 * a11;
+        s[P12][i] = i10 * a02 + i11 * a12;
+        s[P13][i] = i10 * a03 + i11 * a13;
+        s[P20][i] = (i20 * a00 + i21 * a10) + a20;
+        s[P21][i] = (i20 * a01 + i21 * a11) + a21;
+        s[P22][i] = (i20 * a02 + i21 * a12) + a22;
+        s[P23][i] = (i20 * a03 + i21 * a13) + a23;
+        s[P30][i] = (i30 * a00 + i31 * a10) + a30;
+        s[P31][i] = (i30 * a01 + i31 * a11) + a31;
+        s[P32][i] = (i30 * a02 + i31 * a12) + a32;
+        s[P33][i] = (i30 * a03 + i31 * a13) + a33;
+    }
+}
@@ -0,0 +1,139 @@
+package com.forces.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * פוליגון מוכן לבדיקת הכלה ב-O(1) בממוצע. תיבת התחימה מחולקת לרשת של כ-n תאים (EdgeGrid),
+ * ולכל תא ידוע מראש אם נקודת הייחוס שלו בפנים. תא בלי צלעות כולו בפנים או כולו בחוץ - התשובה
+ * היא של נקודת הייחוס. בתא עם צלעות סופרים חציות של הקטע מנקודת הייחוס לנקודה עם הצלעות של
+ * התא בלבד: הקטע כולו בתוך התא, ולכן כל צלע שהוא חוצה רשומה בתא.
+ *
+ * החישוב במישור lat/lng (כמו GeoJSON). טבעת אחת, בלי חורים; הקודקוד האחרון מתחבר לראשון.
+ */
+final class PolygonShape extends ZoneShape {
+
+    private static final int MAX_GRID_SIDE = 128;
+
+    private final double[] lats, lngs;
+    private final EdgeGrid grid;
+    private final boolean[] referenceInside;
+
+    PolygonShape(double[] vertices) {
+        this(ring(vertices, 0), ring(vertices, 1));
+    }
+
+    private PolygonShape(double[] lats, double[] lngs) {
+        super(min(lats), max(lats), min(lngs), max(lngs));
+        this.lats = lats;
+        this.lngs = lngs;
+
+        int n = lats.length;
+        int side = Math.max(1, Math.min(MAX_GRID_SIDE, (int) Math.ceil(Math.sqrt(n))));
+        grid = new EdgeGrid(minLat, maxLat, minLng, maxLng, side, side);
+        for (int i = 0; i < n; i++) {
+            int j = next(i);
+            grid.add(i, Math.min(lats[i], lats[j]), Math.max(lats[i], lats[j]),
+                    Math.min(lngs[i], lngs[j]), Math.max(lngs[i], lngs[j]));
+        }
+        grid.trim();
+        referenceInside = classifyReferences();
+    }
+
+    @Override
+    boolean contains(double latitude, double longitude) {
+        int cell = grid.cell(latitude, longitude);
+        boolean inside = referenceInside[cell];
+        int[] edges = grid.edges(cell);
+        if (edges == null) {
+            return inside;
+        }
+        double referenceLat = grid.referenceLat(cell);
+        double referenceLng = grid.referenceLng(cell);
+        for (int e : edges) {
+            if (crosses(referenceLng, referenceLat, longitude, latitude, e)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    // נקודות הייחוס שורה אחר שורה: חיתוכי הצלעות עם קו הרוחב של השורה, ולכל נקודה - זוגיות
+    // החיתוכים מימינה. O(rows * n + cells * log n) במקום בדיקה מלאה לכל תא
+    private boolean[] classifyReferences() {
+        int rows = grid.rows();
+        int cols = grid.cols();
+        boolean[] result = new boolean[rows * cols];
+        double[] crossings = new double[lats.length];
+        for (int r = 0; r < rows; r++) {
+            double y = grid.referenceLat(r * cols);
+            int count = 0;
+            for (int i = 0; i < lats.length; i++) {
+                int j = next(i);
+                if ((lats[i] > y) != (lats[j] > y)) {
+                    crossings[count++] = lngs[i] + (y - lats[i]) * (lngs[j] - lngs[i]) / (lats[j] - lats[i]);
+                }
+            }
+            Arrays.sort(crossings, 0, count);
+            for (int c = 0; c < cols; c++) {
+                int cell = r * cols + c;
+                int left = Arrays.binarySearch(crossings, 0, count, grid.referenceLng(cell));
+                int atOrLeft = left >= 0 ? left + 1 : -left - 1;
+                result[cell] = ((count - atOrLeft) & 1) == 1;
+            }
+        }
+        return result;
+    }
+
+    // האם הקטע (x1,y1)-(x2,y2) חוצה את צלע e. כלל חצי-פתוח: קודקוד שנוגע בקטע נספר פעם אחת
+    // רק כשהפוליגון באמת עובר מצד לצד
+    private boolean crosses(double x1, double y1, double x2, double y2, int e) {
+        int f = next(e);
+        double ax = lngs[e], ay = lats[e];
+        double bx = lngs[f], by = lats[f];
+        boolean aSide = orient(x1, y1, x2, y2, ax, ay) > 0;
+        boolean bSide = orient(x1, y1, x2, y2, bx, by) > 0;
+        if (aSide == bSide) {
+            return false;
+        }
+        boolean startSide = orient(ax, ay, bx, by, x1, y1) > 0;
+        boolean endSide = orient(ax, ay, bx, by, x2, y2) > 0;
+        return startSide != endSide;
+    }
+
+    private int next(int i) {
+        return i + 1 == lats.length ? 0 : i + 1;
+    }
+
+    private static double orient(double ax, double ay, double bx, double by, double px, double py) {
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+
+    // [lat1, lng1, ...] -> lat או lng לכל קודקוד, בלי קודקוד סוגר שחוזר על הראשון
+    private static double[] ring(double[] vertices, int offset) {
+        int n = vertices.length / 2;
+        if (n > 3 && vertices[0] == vertices[vertices.length - 2] && vertices[1] == vertices[vertices.length - 1]) {
+            n--;
+        }
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = vertices[i * 2 + offset];
+        }
+        return values;
+    }
+
+    private static double min(double[] values) {
+        double min = Double.POSITIVE_INFINITY;
+        for (double value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private static double max(double[] values) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+}
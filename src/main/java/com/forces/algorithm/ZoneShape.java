@@ -0,0 +1,116 @@
+package com.forces.algorithm;
+
+import com.forces.model.DeadZone;
+
+/**
+ * צורה מוכנה של Dead Zone: תיבת תחימה ובדיקת הכלה מדויקת. נבנית פעם אחת כשהאינדקס נבנה,
+ * כך שכל החישובים המקדימים (תיבה, רשת צלעות) לא חוזרים בכל בדיקה.
+ */
+abstract class ZoneShape {
+
+    // גבול לגודל צורה בודדת
+    static final int MAX_VERTICES = 100_000;
+
+    final double minLat, maxLat, minLng, maxLng;
+
+    ZoneShape(double minLat, double maxLat, double minLng, double maxLng) {
+        this.minLat = minLat;
+        this.maxLat = maxLat;
+        this.minLng = minLng;
+        this.maxLng = maxLng;
+    }
+
+    /**
+     * האם הנקודה בתוך הצורה (נקרא רק לנקודות בתוך תיבת התחימה)
+     */
+    abstract boolean contains(double latitude, double longitude);
+
+    /**
+     * הצורה המוכנה של האזור, או null אם הגיאומטריה לא תקינה
+     */
+    static ZoneShape prepare(DeadZone zone) {
+        if (!isValid(zone)) {
+            return null;
+        }
+        switch (zone.getShape()) {
+            case DeadZone.SHAPE_POLYGON:
+                return new PolygonShape(zone.getVertices());
+            case DeadZone.SHAPE_CORRIDOR:
+                return new CorridorShape(zone.getVertices(), zone.getRadius());
+            default:
+                return new Circle(zone.getLatitude(), zone.getLongitude(), zone.getRadius());
+        }
+    }
+
+    static boolean isValid(DeadZone zone) {
+        switch (zone.getShape()) {
+            case DeadZone.SHAPE_CIRCLE:
+                return isLatitude(zone.getLatitude()) && isLongitude(zone.getLongitude())
+                        && zone.getRadius() > 0 && Double.isFinite(zone.getRadius());
+            case DeadZone.SHAPE_POLYGON:
+                return isPath(zone.getVertices(), 3);
+            case DeadZone.SHAPE_CORRIDOR:
+                return isPath(zone.getVertices(), 2) && zone.getRadius() > 0 && Double.isFinite(zone.getRadius());
+            default:
+                return false;
+        }
+    }
+
+    // תיבת תחימה של עיגול/רצועה ברוחב meters סביב הנקודות - ראה DeadZoneIndex.BOX_MARGIN
+    static double latMargin(double meters) {
+        return meters * DeadZoneIndex.BOX_MARGIN / DeadZoneIndex.METERS_PER_DEGREE;
+    }
+
+    static double lngMargin(double latMargin, double minLat, double maxLat) {
+        // לפי קו הרוחב הקיצוני של התיבה (שם מעלת אורך היא הקצרה ביותר)
+        double extremeLat = Math.min(89.0, Math.max(Math.abs(minLat), Math.abs(maxLat)));
+        return latMargin / Math.cos(Math.toRadians(extremeLat));
+    }
+
+    private static boolean isPath(double[] vertices, int minVertices) {
+        if (vertices == null || vertices.length % 2 != 0
+                || vertices.length < minVertices * 2 || vertices.length > MAX_VERTICES * 2) {
+            return false;
+        }
+        for (int i = 0; i < vertices.length; i += 2) {
+            if (!isLatitude(vertices[i]) || !isLongitude(vertices[i + 1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLatitude(double latitude) {
+        return latitude >= -90 && latitude <= 90;
+    }
+
+    private static boolean isLongitude(double longitude) {
+        return longitude >= -180 && longitude <= 180;
+    }
+
+    /**
+     * עיגול: מרחק Haversine מהמרכז
+     */
+    static final class Circle extends ZoneShape {
+
+        private final double latitude, longitude, radius;
+
+        Circle(double latitude, double longitude, double radius) {
+            this(latitude, longitude, radius, latMargin(radius));
+        }
+
+        private Circle(double latitude, double longitude, double radius, double latDelta) {
+            super(latitude - latDelta, latitude + latDelta,
+                    longitude - lngMargin(latDelta, latitude - latDelta, latitude + latDelta),
+                    longitude + lngMargin(latDelta, latitude - latDelta, latitude + latDelta));
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radius = radius;
+        }
+
+        @Override
+        boolean contains(double lat, double lng) {
+            return DeadZoneIndex.distance(lat, lng, latitude, longitude) <= radius;
+        }
+    }
+}
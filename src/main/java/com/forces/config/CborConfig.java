@@ -0,0 +1,19 @@
+package com.forces.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+/**
+ * תמיכה ב-application/cbor בכל ה-REST API: בקשה עם Content-Type: application/cbor
+ * נקראת כ-CBOR, ותשובה נשלחת כ-CBOR כשהלקוח מבקש Accept: application/cbor.
+ * JSON נשאר ברירת המחדל.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter();
+    }
+}
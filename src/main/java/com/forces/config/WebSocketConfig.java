@@ -24,5 +24,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+        
+        // WebSocket ישיר בלי SockJS - SockJS מעביר רק טקסט, ו-frames בינאריים
+        // (למשל /topic/locations.bin) נשלחים רק בחיבור כזה
+        registry.addEndpoint("/ws-native")
+                .setAllowedOriginPatterns("*");
     }
 }
@@ -1,9 +1,12 @@
     package com.forces.controller;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,8 +17,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.forces.model.DeadZone;
+import com.forces.model.DeadZoneImportResult;
+import com.forces.service.DeadZoneImporter;
 import com.forces.service.DeadZoneService;
 
 @RestController
@@ -26,15 +32,24 @@ public class DeadZoneController {
     @Autowired
     private DeadZoneService deadzoneService;
 
+    @Autowired
+    private DeadZoneImporter importer;
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
     /**
-     * הוספת/עדכון Dead Zone
+     * הוספת/עדכון Dead Zone - עיגול, פוליגון או מסדרון
      * POST http://localhost:8080/api/deadzones/add
+     * Body: {"id": "dz-1", "latitude": 32.08, "longitude": 34.78, "radius": 500}
+     *       {"id": "dz-2", "shape": "polygon", "vertices": [32.0, 34.7, 32.1, 34.7, 32.1, 34.8]}
+     *       {"id": "dz-3", "shape": "corridor", "radius": 250, "vertices": [32.0, 34.7, 32.2, 34.9]}
      */
     @PostMapping("/add")
     public ResponseEntity<DeadZone> addDeadZone(@RequestBody DeadZone deadzone) {
+        if (!deadzoneService.isValid(deadzone)) {
+            return ResponseEntity.badRequest().build();
+        }
         DeadZone added = deadzoneService.addOrUpdateDeadZone(deadzone);
         
         // שליחה לכל המחוברים דרך WebSocket
@@ -43,13 +58,49 @@ public class DeadZoneController {
         return ResponseEntity.ok(added);
     }
 
+    /**
+     * ייבוא המוני - JSON array של Dead Zones (כמו ב-/add), נקרא כ-stream ונכתב ב-batches
+     * POST http://localhost:8080/api/deadzones/import
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DeadZoneImportResult> importJson(InputStream body) {
+        return runImport(() -> importer.importJson(body));
+    }
+
+    /**
+     * ייבוא המוני מ-GeoJSON FeatureCollection: Point (עיגול), Polygon (הטבעת החיצונית) או
+     * LineString (מסדרון); radius/name/description ב-properties
+     * POST http://localhost:8080/api/deadzones/import   Content-Type: application/geo+json
+     */
+    @PostMapping(value = "/import", consumes = "application/geo+json")
+    public ResponseEntity<DeadZoneImportResult> importGeoJson(InputStream body) {
+        return runImport(() -> importer.importGeoJson(body));
+    }
+
+    /**
+     * ייבוא המוני מ-CSV עם שורת כותרת: id,latitude,longitude,radius,name,description
+     * (ולפוליגון/מסדרון גם shape,vertices - הקואורדינטות מופרדות ברווחים)
+     * POST http://localhost:8080/api/deadzones/import   Content-Type: text/csv
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<DeadZoneImportResult> importCsv(InputStream body) {
+        return runImport(() -> importer.importCsv(body));
+    }
+
     /**
      * קבלת כל ה-Dead Zones
      * GET http://localhost:8080/api/deadzones/all
+     * מחזיר 304 אם ה-ETag ב-If-None-Match עדיין עדכני
      */
     @GetMapping("/all")
-    public ResponseEntity<List<DeadZone>> getAllDeadZones() {
-        return ResponseEntity.ok(deadzoneService.getAllDeadZones());
+    public ResponseEntity<List<DeadZone>> getAllDeadZones(WebRequest request) {
+        String etag = deadzoneService.getVersionTag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(deadzoneService.getAllDeadZones());
     }
 
     /**
@@ -112,4 +163,24 @@ public class DeadZoneController {
     public ResponseEntity<Integer> getDeadZoneCount() {
         return ResponseEntity.ok(deadzoneService.getDeadZoneCount());
     }
+
+    // ייבוא שנעצר באמצע מחזיר את התוצאה החלקית: 400 לקלט לא תקין, 500 לכתיבה שנכשלה.
+    // השורות שנכתבו לפני השגיאה נשארות ונמצאות ב-cache, ולכן גם אז נשלחת ההודעה. הודעה
+    // אחת לכל הייבוא - הלקוחות טוענים מחדש את /all במקום הודעה לכל אזור
+    private ResponseEntity<DeadZoneImportResult> runImport(ImportCall call) {
+        DeadZoneImportResult result = call.run();
+        if (result.getError() == null || result.getImported() > 0) {
+            messagingTemplate.convertAndSend("/topic/deadzones-imported", result);
+        }
+        if (result.getError() == null) {
+            return ResponseEntity.ok(result);
+        }
+        return ResponseEntity.status(result.isInvalidInput() ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(result);
+    }
+
+    @FunctionalInterface
+    private interface ImportCall {
+        DeadZoneImportResult run();
+    }
 }
@@ -1,10 +1,24 @@
 package com.forces.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,46 +26,158 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.forces.model.ForceLocation;
 import com.forces.service.ForceService;
-import com.forces.service.TrajectoryService;
+import com.forces.service.IngestPipeline;
+
+import jakarta.annotation.PostConstruct;
 
 @RestController
 @RequestMapping("/api/forces")
 @CrossOrigin(origins = "*")
 public class ForceController {
 
+    // גודל מנה לעיבוד בעדכון מרוכז
+    private static final int BATCH_CHUNK_SIZE = 1000;
+
     @Autowired
     private ForceService forceService;
 
     @Autowired
-    private TrajectoryService trajectoryService;  // ← חשוב!
+    private IngestPipeline ingestPipeline;
 
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    private ObjectWriter locationWriter;
+
+    @PostConstruct
+    public void init() {
+        locationWriter = objectMapper.writerFor(ForceLocation.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * עדכון מיקום - מוחל ב-thread הכותב של הכוח (ForceService, היסטוריה, Kalman, Dead Zones).
+     * JSON או CBOR (Content-Type: application/cbor); התשובה לפי Accept.
+     * התשובה נשלחת כשהעדכון הוחל; 503 אם התור של ה-shard מלא.
+     */
     @PostMapping("/update")
-    public ResponseEntity<ForceLocation> updateLocation(@RequestBody ForceLocation location) {
-        ForceLocation updated = forceService.updateLocation(location);
-        
-        // ← זה החלק החשוב! שמירה בהיסטוריה
-        trajectoryService.addLocation(
-            location.getId(),
-            location.getLatitude(),
-            location.getLongitude()
-        );
+    public CompletableFuture<ResponseEntity<ForceLocation>> updateLocation(@RequestBody ForceLocation location) {
+        return ingestPipeline.submit(location)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(ForceController::rejected);
+    }
+
+    /**
+     * עדכון מרוכז של מיקומים
+     * POST http://localhost:8080/api/forces/update/batch
+     * Body: מערך JSON של מיקומים, NDJSON (application/x-ndjson) - מיקום בכל שורה,
+     * או CBOR (application/cbor) - מערך או רצף של מיקומים.
+     * הקלט נקרא כזרם ומעובד במנות; המיקום האחרון של כל כוח יוצא ב-tick הבא של ה-broadcaster.
+     * התשובה נשלחת כשכל מה שהתקבל הוחל. אם תור של shard מלא הקריאה נעצרת והתשובה היא 503 עם
+     * accepted (כמה הוחלו), rejected (האינדקסים בקלט שנדחו) ו-next (האינדקס הראשון שלא נקרא) -
+     * שליחה חוזרת של rejected ושל הקלט מ-next והלאה בלבד לא מחילה אף מיקום פעמיים.
+     */
+    @PostMapping(value = "/update/batch",
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+                             MediaType.APPLICATION_CBOR_VALUE})
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> updateLocations(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) throws IOException {
+        ObjectMapper mapper = MediaType.APPLICATION_CBOR.isCompatibleWith(MediaType.parseMediaType(contentType))
+                ? cborConverter.getObjectMapper() : objectMapper;
+        Set<String> forceIds = new HashSet<>();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        List<Integer> rejected = new ArrayList<>();
+        List<ForceLocation> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+        int read = 0;
         
-        messagingTemplate.convertAndSend("/topic/locations", updated);
+        try (MappingIterator<ForceLocation> locations =
+                 mapper.readerFor(ForceLocation.class).readValues(body)) {
+            // אחרי דחייה ראשונה לא ממשיכים לקרוא - שאר הקלט לא הוחל
+            while (rejected.isEmpty() && locations.hasNextValue()) {
+                ForceLocation location = locations.nextValue();
+                chunk.add(location);
+                forceIds.add(location.getId());
+                if (chunk.size() == BATCH_CHUNK_SIZE) {
+                    submitChunk(chunk, read, chunks, rejected);
+                    read += chunk.size();
+                    chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            submitChunk(chunk, read, chunks, rejected);
+            read += chunk.size();
+        }
         
-        return ResponseEntity.ok(updated);
+        Map<String, Object> result = new HashMap<>();
+        result.put("accepted", read - rejected.size());
+        result.put("forces", forceIds.size());
+        CompletableFuture<Void> applied = CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]));
+        if (rejected.isEmpty()) {
+            return applied.thenApply(done -> ResponseEntity.ok(result));
+        }
+        result.put("rejected", rejected);
+        result.put("next", read);
+        return applied.thenApply(done -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(result));
+    }
+
+    // הגשת מנה שמתחילה באינדקס offset בקלט; אינדקסים שנדחו נוספים ל-rejected
+    private void submitChunk(List<ForceLocation> chunk, int offset,
+                             List<CompletableFuture<Void>> chunks, List<Integer> rejected) {
+        IngestPipeline.BatchSubmission submission = ingestPipeline.submitAll(chunk);
+        chunks.add(submission.getApplied());
+        for (int index : submission.getRejected()) {
+            rejected.add(offset + index);
+        }
     }
 
+    // תור מלא ב-IngestPipeline -> 503, כל שגיאה אחרת ממשיכה כרגיל
+    private static <T> ResponseEntity<T> rejected(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+    }
+
+    /**
+     * כל הכוחות כמערך JSON, נכתב רשומה אחר רשומה מהמפה החיה (זיכרון קבוע בלי קשר לגודל הצי)
+     */
     @GetMapping("/all")
-    public ResponseEntity<List<ForceLocation>> getAllForces() {
-        return ResponseEntity.ok(forceService.getAllForces());
+    public ResponseEntity<StreamingResponseBody> getAllForces() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> {
+                    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)
+                            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                        generator.writeStartArray();
+                        Iterator<ForceLocation> forces = forceService.streamForces().iterator();
+                        while (forces.hasNext()) {
+                            locationWriter.writeValue(generator, forces.next());
+                        }
+                        generator.writeEndArray();
+                    }
+                });
     }
 
     @GetMapping("/{id}")
@@ -64,14 +190,17 @@ public class ForceController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> removeForce(@PathVariable String id) {
-        boolean removed = forceService.removeForce(id);
-        if (removed) {
-            trajectoryService.removeTrajectory(id);  // ← נקה גם את ההיסטוריה
-            messagingTemplate.convertAndSend("/topic/removed", id);
-            return ResponseEntity.ok().build();
-        }
-        return ResponseEntity.notFound().build();
+    public CompletableFuture<ResponseEntity<Void>> removeForce(@PathVariable String id) {
+        // המחיקה רצה ב-shard של הכוח, אחרי העדכונים שכבר בתור שלו
+        return ingestPipeline.remove(id)
+                .thenApply(removed -> {
+                    if (removed) {
+                        messagingTemplate.convertAndSend("/topic/removed", id);
+                        return ResponseEntity.ok().<Void>build();
+                    }
+                    return ResponseEntity.notFound().<Void>build();
+                })
+                .exceptionally(ForceController::rejected);
     }
 
     @GetMapping("/type/{type}")
@@ -85,11 +214,13 @@ public class ForceController {
     }
 
     @DeleteMapping("/all")
-    public ResponseEntity<Void> clearAllForces() {
-        forceService.clearAllForces();
-        trajectoryService.clearAll();  // ← נקה את כל ההיסטוריה
-        messagingTemplate.convertAndSend("/topic/cleared", "all");
-        return ResponseEntity.ok().build();
+    public CompletableFuture<ResponseEntity<Void>> clearAllForces() {
+        return ingestPipeline.clearAll()
+                .thenApply(done -> {
+                    messagingTemplate.convertAndSend("/topic/cleared", "all");
+                    return ResponseEntity.ok().<Void>build();
+                })
+                .exceptionally(ForceController::rejected);
     }
 
     @GetMapping("/health")
@@ -0,0 +1,90 @@
+package com.forces.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.forces.model.ForceLocation;
+import com.forces.model.ForceTrajectory.LocationPoint;
+import com.forces.repository.LocationLog;
+
+/**
+ * היסטוריה מלאה מהלוג על הדיסק (מעבר ל-max-history-size נקודות שבזיכרון)
+ */
+@RestController
+@RequestMapping("/api/history")
+@CrossOrigin(origins = "*")
+public class HistoryController {
+
+    private static final int MAX_LIMIT = 100_000;
+    private static final int MAX_POINTS = 10_000;
+
+    @Autowired
+    private LocationLog locationLog;
+
+    /**
+     * מיקומי כוח בחלון זמן (מילישניות, כולל)
+     * GET http://localhost:8080/api/history/{forceId}?from=1700000000000&to=1700003600000&limit=10000
+     */
+    @GetMapping("/{forceId}")
+    public ResponseEntity<List<LocationPoint>> getHistory(
+            @PathVariable String forceId,
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long to,
+            @RequestParam(defaultValue = "10000") int limit) {
+
+        if (!locationLog.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        }
+        if (from > to || limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(locationLog.read(forceId, from, to, limit));
+    }
+
+    /**
+     * מצב הצי בזמן at, כמו שהמצב החי נראה אז: כוחות שהזמן האחרון שלהם ב-lookback המילישניות שלפניו
+     * GET http://localhost:8080/api/history/snapshot?at=1700000000000&lookback=600000
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<List<ForceLocation>> getSnapshot(
+            @RequestParam long at,
+            @RequestParam(defaultValue = "600000") long lookback) {
+
+        if (!locationLog.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        }
+        if (lookback < 0 || lookback > at) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(locationLog.snapshotAt(at, lookback));
+    }
+
+    /**
+     * מסלול כוח בחלון זמן, מדולל לכל היותר ל-points נקודות (נקודה אחרונה מכל חלק שווה של הטווח)
+     * GET http://localhost:8080/api/history/{forceId}/path?from=1700000000000&to=1700086400000&points=500
+     */
+    @GetMapping("/{forceId}/path")
+    public ResponseEntity<List<LocationPoint>> getPath(
+            @PathVariable String forceId,
+            @RequestParam long from,
+            @RequestParam long to,
+            @RequestParam(defaultValue = "500") int points) {
+
+        if (!locationLog.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        }
+        if (from > to || points < 1 || points > MAX_POINTS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(locationLog.path(forceId, from, to, points));
+    }
+}
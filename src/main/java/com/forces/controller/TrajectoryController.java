@@ -1,22 +1,41 @@
 package com.forces.controller;
 
+import com.forces.model.BatchPredictionRequest;
+import com.forces.model.BatchPredictionResult;
 import com.forces.model.ForceTrajectory;
+import com.forces.model.PolylineEncoder;
 import com.forces.model.PredictionResult;
+import com.forces.service.IngestPipeline;
+import com.forces.service.TrajectoryExporter;
 import com.forces.service.TrajectoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/trajectory")
 @CrossOrigin(origins = "*")
 public class TrajectoryController {
 
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
     @Autowired
     private TrajectoryService trajectoryService;
 
+    @Autowired
+    private TrajectoryExporter trajectoryExporter;
+
+    // מחיקות רצות ב-thread הכותב של הכוח
+    @Autowired
+    private IngestPipeline ingestPipeline;
+
     /**
      * קבלת חיזוי מסלול לכוח
      * GET http://localhost:8080/api/trajectory/predict/{forceId}?seconds=60
@@ -25,6 +44,9 @@ public class TrajectoryController {
     public ResponseEntity<PredictionResult> predictTrajectory(
             @PathVariable String forceId,
             @RequestParam(defaultValue = "60") int seconds) {
+        if (!TrajectoryService.isValidHorizon(seconds)) {
+            return ResponseEntity.badRequest().build();
+        }
         
         PredictionResult prediction = trajectoryService.predictTrajectory(forceId, seconds);
         
@@ -35,6 +57,31 @@ public class TrajectoryController {
         return ResponseEntity.ok(prediction);
     }
 
+    /**
+     * חיזוי מסלול לכמה כוחות בבקשה אחת
+     * POST http://localhost:8080/api/trajectory/predict/batch
+     * Body: {"forceIds": ["force-1", "force-2"], "seconds": 60}
+     *   או: {"minLatitude": 31.9, "minLongitude": 34.7, "maxLatitude": 32.2, "maxLongitude": 34.9, "seconds": 60}
+     * seconds בין 1 ל-3600, אחרת 400
+     */
+    @PostMapping("/predict/batch")
+    public ResponseEntity<BatchPredictionResult> predictTrajectories(@RequestBody BatchPredictionRequest request) {
+        if (!TrajectoryService.isValidHorizon(request.getSeconds())) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (request.getForceIds() != null) {
+            return ResponseEntity.ok(trajectoryService.predictTrajectories(
+                    request.getForceIds(), request.getSeconds()));
+        }
+        if (request.hasBounds()) {
+            return ResponseEntity.ok(trajectoryService.predictTrajectoriesInBounds(
+                    request.getMinLatitude(), request.getMinLongitude(),
+                    request.getMaxLatitude(), request.getMaxLongitude(),
+                    request.getSeconds()));
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
     /**
      * קבלת היסטוריית מיקומים לכוח
      * GET http://localhost:8080/api/trajectory/history/{forceId}
@@ -51,12 +98,104 @@ public class TrajectoryController {
     }
 
     /**
-     * קבלת כל המסלולים
+     * היסטוריית מיקומים לכוח בקידוד polyline (דחוס פי ~10 מ-/history)
+     * GET http://localhost:8080/api/trajectory/history/{forceId}/encoded?precision=5
+     * עם Accept-Encoding: gzip התשובה נדחסת גם ב-gzip
+     */
+    @GetMapping("/history/{forceId}/encoded")
+    public ResponseEntity<StreamingResponseBody> getEncodedHistory(
+            @PathVariable String forceId,
+            @RequestParam(defaultValue = "" + PolylineEncoder.DEFAULT_PRECISION) int precision,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        if (precision < 0 || precision > PolylineEncoder.MAX_PRECISION) {
+            return ResponseEntity.badRequest().build();
+        }
+        ForceTrajectory trajectory = trajectoryService.getTrajectory(forceId);
+        if (trajectory == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return encoded(acceptEncoding, out -> trajectoryExporter.writeEncoded(trajectory, precision, out));
+    }
+
+    /**
+     * כל המסלולים בקידוד polyline, נכתבים ישירות מה-buffers
+     * GET http://localhost:8080/api/trajectory/all/encoded?precision=5
+     */
+    @GetMapping("/all/encoded")
+    public ResponseEntity<StreamingResponseBody> getAllEncoded(
+            @RequestParam(defaultValue = "" + PolylineEncoder.DEFAULT_PRECISION) int precision,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        if (precision < 0 || precision > PolylineEncoder.MAX_PRECISION) {
+            return ResponseEntity.badRequest().build();
+        }
+        return encoded(acceptEncoding, out -> trajectoryExporter.writeAllEncoded(precision, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> encoded(String acceptEncoding, StreamingResponseBody body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(acceptEncoding)) {
+            return response.body(body);
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+            body.writeTo(gzip);
+            gzip.finish();
+        });
+    }
+
+    /**
+     * האם הלקוח מקבל gzip: gzip (או *) עם q גדול מ-0. "gzip;q=0" הוא סירוב מפורש,
+     * ו-gzip מפורש גובר על *
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            int params = coding.indexOf(';');
+            String name = (params < 0 ? coding : coding.substring(0, params)).trim();
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                gzip = Math.max(gzip, quality(params < 0 ? null : coding.substring(params + 1)));
+            } else if (name.equals("*")) {
+                any = Math.max(any, quality(params < 0 ? null : coding.substring(params + 1)));
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    // ערך q מתוך הפרמטרים של קידוד אחד (ברירת מחדל 1; ערך לא תקין נחשב סירוב)
+    private static double quality(String params) {
+        if (params == null) {
+            return 1;
+        }
+        for (String param : params.split(";")) {
+            int eq = param.indexOf('=');
+            if (eq > 0 && param.substring(0, eq).trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(param.substring(eq + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * קבלת כל המסלולים - נכתבים ל-response אחד אחרי השני, בלי לבנות את כל התשובה בזיכרון
      * GET http://localhost:8080/api/trajectory/all
      */
     @GetMapping("/all")
-    public ResponseEntity<Map<String, ForceTrajectory>> getAllTrajectories() {
-        return ResponseEntity.ok(trajectoryService.getAllTrajectories());
+    public ResponseEntity<StreamingResponseBody> getAllTrajectories() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(trajectoryExporter::writeAll);
     }
 
     /**
@@ -73,9 +212,9 @@ public class TrajectoryController {
      * DELETE http://localhost:8080/api/trajectory/{forceId}
      */
     @DeleteMapping("/{forceId}")
-    public ResponseEntity<Void> removeTrajectory(@PathVariable String forceId) {
-        trajectoryService.removeTrajectory(forceId);
-        return ResponseEntity.ok().build();
+    public CompletableFuture<ResponseEntity<Void>> removeTrajectory(@PathVariable String forceId) {
+        return ingestPipeline.resetTrajectory(forceId)
+                .thenApply(done -> ResponseEntity.ok().<Void>build());
     }
 
     /**
@@ -83,8 +222,8 @@ public class TrajectoryController {
      * DELETE http://localhost:8080/api/trajectory/all
      */
     @DeleteMapping("/all")
-    public ResponseEntity<Void> clearAllTrajectories() {
-        trajectoryService.clearAll();
-        return ResponseEntity.ok().build();
+    public CompletableFuture<ResponseEntity<Void>> clearAllTrajectories() {
+        return ingestPipeline.resetAllTrajectories()
+                .thenApply(done -> ResponseEntity.ok().<Void>build());
     }
 }
@@ -0,0 +1,137 @@
+package com.forces.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * מדדי Micrometer של נתיבי העבודה העיקריים. המונים נוצרים פעם אחת,
+ * כך שעדכון מדד בזמן ריצה אינו מקצה זיכרון ואינו מחפש ב-registry.
+ * נחשף ב-/actuator/prometheus.
+ */
+@Component
+public class TrackingMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter fixesIngested;
+    private final Timer kalmanUpdate;
+    private final Timer kalmanBatchUpdate;
+    private final Counter predictionsServed;
+    private final Counter predictionCacheHits;
+    private final Counter predictionCacheMisses;
+    private final Counter deadZoneHits;
+    private final Counter ingestRejected;
+    private final Counter historyAppended;
+    private final Counter historyDropped;
+    private final Timer historyCommit;
+
+    public TrackingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        fixesIngested = Counter.builder("tracking.fixes.ingested")
+                .description("Location fixes accepted by the ingest path")
+                .register(registry);
+        kalmanUpdate = Timer.builder("tracking.kalman.update")
+                .description("Kalman filter update latency")
+                .tag("mode", "single")
+                .register(registry);
+        kalmanBatchUpdate = Timer.builder("tracking.kalman.update")
+                .description("Kalman filter update latency")
+                .tag("mode", "batch")
+                .register(registry);
+        predictionsServed = Counter.builder("tracking.predictions.served")
+                .description("Trajectory predictions returned")
+                .register(registry);
+        predictionCacheHits = Counter.builder("tracking.predictions.cache")
+                .description("Single-force prediction cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        predictionCacheMisses = Counter.builder("tracking.predictions.cache")
+                .description("Single-force prediction cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        deadZoneHits = Counter.builder("tracking.deadzone.hits")
+                .description("Dead zones matched by containment checks")
+                .register(registry);
+        ingestRejected = Counter.builder("tracking.ingest.rejected")
+                .description("Ingest tasks rejected because a shard queue was full")
+                .register(registry);
+        historyAppended = Counter.builder("tracking.history.appended")
+                .description("Location fixes committed to the on-disk history log")
+                .register(registry);
+        historyDropped = Counter.builder("tracking.history.dropped")
+                .description("Location fixes not written to the history log (queue full or I/O error)")
+                .register(registry);
+        historyCommit = Timer.builder("tracking.history.commit")
+                .description("History log group commit latency (write + sync of one batch)")
+                .register(registry);
+    }
+
+    public void ingestQueueDepth(IntSupplier depth) {
+        Gauge.builder("tracking.ingest.queue", depth::getAsInt)
+                .description("Location fixes waiting in the ingest shard queues")
+                .register(registry);
+    }
+
+    public void historyQueueDepth(IntSupplier depth) {
+        Gauge.builder("tracking.history.queue", depth::getAsInt)
+                .description("Location fixes waiting for the history log writer")
+                .register(registry);
+    }
+
+    public void historyCommit(int count, long nanos) {
+        historyAppended.increment(count);
+        historyCommit.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void historyDropped(int count) {
+        if (count > 0) {
+            historyDropped.increment(count);
+        }
+    }
+
+    public void ingestRejected() {
+        ingestRejected.increment();
+    }
+
+    public void fixesIngested(int count) {
+        fixesIngested.increment(count);
+    }
+
+    public void kalmanUpdate(long nanos) {
+        kalmanUpdate.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void kalmanBatchUpdate(long nanos) {
+        kalmanBatchUpdate.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void predictionServed() {
+        predictionsServed.increment();
+    }
+
+    public void predictionCacheHit() {
+        predictionCacheHits.increment();
+    }
+
+    public void predictionCacheMiss() {
+        predictionCacheMisses.increment();
+    }
+
+    public void predictionsServed(int count) {
+        if (count > 0) {
+            predictionsServed.increment(count);
+        }
+    }
+
+    public void deadZoneHits(int count) {
+        if (count > 0) {
+            deadZoneHits.increment(count);
+        }
+    }
+}
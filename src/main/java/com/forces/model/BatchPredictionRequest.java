@@ -0,0 +1,56 @@
+package com.forces.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * בקשת חיזוי לכמה כוחות: רשימת מזהים, או כל הכוחות בתוך תיבת תחימה
+ */
+public class BatchPredictionRequest {
+
+    @JsonProperty("forceIds")
+    private List<String> forceIds;
+
+    @JsonProperty("minLatitude")
+    private Double minLatitude;
+
+    @JsonProperty("minLongitude")
+    private Double minLongitude;
+
+    @JsonProperty("maxLatitude")
+    private Double maxLatitude;
+
+    @JsonProperty("maxLongitude")
+    private Double maxLongitude;
+
+    @JsonProperty("seconds")
+    private int seconds = 60;
+
+    public BatchPredictionRequest() {}
+
+    /**
+     * האם הוגדרה תיבת תחימה מלאה
+     */
+    public boolean hasBounds() {
+        return minLatitude != null && minLongitude != null && maxLatitude != null && maxLongitude != null;
+    }
+
+    public List<String> getForceIds() { return forceIds; }
+    public void setForceIds(List<String> forceIds) { this.forceIds = forceIds; }
+
+    public Double getMinLatitude() { return minLatitude; }
+    public void setMinLatitude(Double minLatitude) { this.minLatitude = minLatitude; }
+
+    public Double getMinLongitude() { return minLongitude; }
+    public void setMinLongitude(Double minLongitude) { this.minLongitude = minLongitude; }
+
+    public Double getMaxLatitude() { return maxLatitude; }
+    public void setMaxLatitude(Double maxLatitude) { this.maxLatitude = maxLatitude; }
+
+    public Double getMaxLongitude() { return maxLongitude; }
+    public void setMaxLongitude(Double maxLongitude) { this.maxLongitude = maxLongitude; }
+
+    public int getSeconds() { return seconds; }
+    public void setSeconds(int seconds) { this.seconds = seconds; }
+}
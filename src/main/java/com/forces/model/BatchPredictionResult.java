@@ -0,0 +1,95 @@
+package com.forces.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * חיזוי לכמה כוחות בתשובה אחת. כל הכוחות חוזו לאותן נקודות זמן, ולכן חותמות הזמן
+ * מופיעות פעם אחת ברמה העליונה, והמסלול של כל כוח הוא מערך שטוח
+ * [lat1, lng1, lat2, lng2, ...] - נקודה i במסלול שייכת ל-timestamps[i].
+ */
+public class BatchPredictionResult {
+
+    @JsonProperty("generatedAt")
+    private long generatedAt;
+
+    @JsonProperty("timestamps")
+    private long[] timestamps;
+
+    @JsonProperty("predictions")
+    private List<ForcePrediction> predictions;
+
+    public BatchPredictionResult() {}
+
+    public BatchPredictionResult(long generatedAt, long[] timestamps, List<ForcePrediction> predictions) {
+        this.generatedAt = generatedAt;
+        this.timestamps = timestamps;
+        this.predictions = predictions;
+    }
+
+    // Inner class
+    public static class ForcePrediction {
+
+        @JsonProperty("forceId")
+        private String forceId;
+
+        // המיקום האחרון שנקלט
+        @JsonProperty("latitude")
+        private double latitude;
+
+        @JsonProperty("longitude")
+        private double longitude;
+
+        @JsonProperty("timestamp")
+        private long timestamp;
+
+        @JsonProperty("path")
+        private double[] path;
+
+        @JsonProperty("speed")
+        private double speed; // מ"ש
+
+        @JsonProperty("heading")
+        private double heading; // דרגות
+
+        @JsonProperty("confidence")
+        private double confidence; // 0-1
+
+        public ForcePrediction() {}
+
+        public String getForceId() { return forceId; }
+        public void setForceId(String forceId) { this.forceId = forceId; }
+
+        public double getLatitude() { return latitude; }
+        public void setLatitude(double latitude) { this.latitude = latitude; }
+
+        public double getLongitude() { return longitude; }
+        public void setLongitude(double longitude) { this.longitude = longitude; }
+
+        public long getTimestamp() { return timestamp; }
+        public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+        public double[] getPath() { return path; }
+        public void setPath(double[] path) { this.path = path; }
+
+        public double getSpeed() { return speed; }
+        public void setSpeed(double speed) { this.speed = speed; }
+
+        public double getHeading() { return heading; }
+        public void setHeading(double heading) { this.heading = heading; }
+
+        public double getConfidence() { return confidence; }
+        public void setConfidence(double confidence) { this.confidence = confidence; }
+    }
+
+    // Getters and Setters
+    public long getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(long generatedAt) { this.generatedAt = generatedAt; }
+
+    public long[] getTimestamps() { return timestamps; }
+    public void setTimestamps(long[] timestamps) { this.timestamps = timestamps; }
+
+    public List<ForcePrediction> getPredictions() { return predictions; }
+    public void setPredictions(List<ForcePrediction> predictions) { this.predictions = predictions; }
+}
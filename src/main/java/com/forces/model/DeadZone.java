@@ -2,54 +2,45 @@ package com.forces.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-
 import jakarta.persistence.*;
 
+/**
+ * אזור אסור: עיגול (latitude, longitude, radius), פוליגון או מסדרון.
+ * פוליגון ומסדרון מוגדרים ב-vertices כמערך שטוח [lat1, lng1, lat2, lng2, ...];
+ * במסדרון radius הוא חצי הרוחב במטרים סביב קו הנקודות, ו-latitude/longitude הם נקודת תווית בלבד.
+ */
 @Entity
 @Table(name = "deadzones")
 public class DeadZone {
-    
-    @Id
-    private String id;
-    
-    @Column(nullable = false)
-    private double latitude;
-    
-    @Column(nullable = false)
-    private double longitude;
-    
-    @Column(nullable = false)
-    private double radius;
-    
-    private String name;
-    
-    private String description;
-    
-    private long timestamp;
-    
-    // ... שאר הקוד נשאר אותו דבר
-}
-
 
-
-
-
-
-
-public class DeadZone {
+    public static final String SHAPE_CIRCLE = "circle";
+    public static final String SHAPE_POLYGON = "polygon";
+    public static final String SHAPE_CORRIDOR = "corridor";
     
+    @Id
     @JsonProperty("id")
     private String id;
     
+    @Column(nullable = false)
     @JsonProperty("latitude")
     private double latitude;
     
+    @Column(nullable = false)
     @JsonProperty("longitude")
     private double longitude;
     
+    @Column(nullable = false)
     @JsonProperty("radius")
     private double radius; // ברדיוס במטרים
     
+    @JsonProperty("shape")
+    private String shape = SHAPE_CIRCLE;
+    
+    @Column(columnDefinition = "text")
+    @Convert(converter = VerticesConverter.class)
+    @JsonProperty("vertices")
+    private double[] vertices;
+    
     @JsonProperty("name")
     private String name;
     
@@ -107,6 +98,23 @@ public class DeadZone {
         this.radius = radius;
     }
 
+    // שורות מלפני הוספת העמודה - עיגול
+    public String getShape() {
+        return shape != null ? shape : SHAPE_CIRCLE;
+    }
+
+    public void setShape(String shape) {
+        this.shape = shape;
+    }
+
+    public double[] getVertices() {
+        return vertices;
+    }
+
+    public void setVertices(double[] vertices) {
+        this.vertices = vertices;
+    }
+
     public String getName() {
         return name;
     }
@@ -138,6 +146,8 @@ public class DeadZone {
                 ", latitude=" + latitude +
                 ", longitude=" + longitude +
                 ", radius=" + radius +
+                ", shape='" + getShape() + '\'' +
+                ", vertices=" + (vertices != null ? vertices.length / 2 : 0) +
                 ", name='" + name + '\'' +
                 ", description='" + description + '\'' +
                 ", timestamp=" + timestamp +
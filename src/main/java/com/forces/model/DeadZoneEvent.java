@@ -0,0 +1,77 @@
+package com.forces.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * אירוע כניסה/יציאה של כוח מ-Dead Zone
+ */
+public class DeadZoneEvent {
+
+    public static final String ENTER = "ENTER";
+    public static final String EXIT = "EXIT";
+
+    @JsonProperty("type")
+    private String type;
+
+    @JsonProperty("forceId")
+    private String forceId;
+
+    @JsonProperty("zoneId")
+    private String zoneId;
+
+    @JsonProperty("zoneName")
+    private String zoneName;
+
+    @JsonProperty("latitude")
+    private double latitude;
+
+    @JsonProperty("longitude")
+    private double longitude;
+
+    @JsonProperty("timestamp")
+    private long timestamp;
+
+    public DeadZoneEvent() {}
+
+    public DeadZoneEvent(String type, String forceId, String zoneId, String zoneName,
+                         double latitude, double longitude, long timestamp) {
+        this.type = type;
+        this.forceId = forceId;
+        this.zoneId = zoneId;
+        this.zoneName = zoneName;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.timestamp = timestamp;
+    }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getForceId() { return forceId; }
+    public void setForceId(String forceId) { this.forceId = forceId; }
+
+    public String getZoneId() { return zoneId; }
+    public void setZoneId(String zoneId) { this.zoneId = zoneId; }
+
+    public String getZoneName() { return zoneName; }
+    public void setZoneName(String zoneName) { this.zoneName = zoneName; }
+
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+    @Override
+    public String toString() {
+        return "DeadZoneEvent{" +
+                "type='" + type + '\'' +
+                ", forceId='" + forceId + '\'' +
+                ", zoneId='" + zoneId + '\'' +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,59 @@
+package com.forces.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * תוצאת ייבוא המוני של Dead Zones: שורות שנכתבו, ושורות שנדחו
+ * (בלי id או עם גיאומטריה לא תקינה - ראה DeadZoneIndex.isValid).
+ * ייבוא שנעצר באמצע מחזיר גם error, ו-imported הן השורות שנכתבו עד אז
+ */
+public class DeadZoneImportResult {
+
+    @JsonProperty("imported")
+    private int imported;
+
+    @JsonProperty("skipped")
+    private int skipped;
+
+    @JsonProperty("millis")
+    private long millis;
+
+    // null אם הייבוא הושלם
+    @JsonProperty("error")
+    private String error;
+
+    // השגיאה בקלט ולא בכתיבה ל-DB
+    @JsonIgnore
+    private boolean invalidInput;
+
+    public DeadZoneImportResult() {}
+
+    public DeadZoneImportResult(int imported, int skipped, long millis, String error, boolean invalidInput) {
+        this.imported = imported;
+        this.skipped = skipped;
+        this.millis = millis;
+        this.error = error;
+        this.invalidInput = invalidInput;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isInvalidInput() {
+        return invalidInput;
+    }
+}
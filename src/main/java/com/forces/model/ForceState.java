@@ -0,0 +1,134 @@
+package com.forces.model;
+
+import java.util.Arrays;
+
+/**
+ * כל המצב של כוח אחד ברשומה אחת: המיקום האחרון, היסטוריית המסלול, ה-slot של הכוח
+ * ב-KalmanBank וזמן המדידה הקודמת. נוצר פעם אחת (computeIfAbsent ב-ForceStateStore),
+ * כך שעדכון מיקום הוא חיפוש יחיד במפה.
+ * כל הכתיבות לכוח מגיעות מה-thread של ה-shard שלו ב-IngestPipeline; השדות volatile
+ * כדי שקוראים מ-threads אחרים יראו ערכים עדכניים.
+ */
+public class ForceState {
+
+    private final String forceId;
+    private final int kalmanSlot;
+
+    private volatile ForceLocation location;
+    private volatile ForceTrajectory trajectory;
+
+    // זמן המדידה הקודמת (0 = אין עדיין מדידה)
+    private volatile long lastUpdateTime;
+
+    // גרסת מצב הפילטר - עולה בכל מדידה ובכל איפוס
+    private volatile long version;
+
+    // חיזויים אחרונים שחושבו לכוח (לפי secondsAhead), תקפים רק לגרסה שבה חושבו
+    private volatile CachedPrediction[] predictions;
+
+    public ForceState(String forceId, ForceTrajectory trajectory, int kalmanSlot) {
+        this.forceId = forceId;
+        this.trajectory = trajectory;
+        this.kalmanSlot = kalmanSlot;
+    }
+
+    public String getForceId() {
+        return forceId;
+    }
+
+    public int getKalmanSlot() {
+        return kalmanSlot;
+    }
+
+    public ForceLocation getLocation() {
+        return location;
+    }
+
+    public void setLocation(ForceLocation location) {
+        this.location = location;
+    }
+
+    public ForceTrajectory getTrajectory() {
+        return trajectory;
+    }
+
+    public void setTrajectory(ForceTrajectory trajectory) {
+        this.trajectory = trajectory;
+    }
+
+    public long getLastUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    public void setLastUpdateTime(long lastUpdateTime) {
+        this.lastUpdateTime = lastUpdateTime;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * מצב הפילטר השתנה: גרסה חדשה, והחיזויים שחושבו עד עכשיו נזרקים.
+     * נקרא רק מה-thread הכותב של הכוח.
+     */
+    public void invalidatePredictions() {
+        version++;
+        predictions = null;
+    }
+
+    /**
+     * חיזוי שמור ל-secondsAhead בגרסה הנוכחית, או null
+     */
+    public PredictionResult getCachedPrediction(int secondsAhead) {
+        CachedPrediction[] cached = predictions;
+        if (cached == null) {
+            return null;
+        }
+        long current = version;
+        for (CachedPrediction entry : cached) {
+            if (entry.secondsAhead == secondsAhead && entry.version == current) {
+                return entry.result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * שמירת חיזוי שחושב בגרסה version. מחזיק עד maxEntries ערכי secondsAhead שונים -
+     * החדש נכנס ראשון והישן ביותר נפלט. נקרא מ-threads של קוראים, ולכן המערך מוחלף
+     * ולא משתנה במקום; שמירה שמתחרה בשמירה אחרת יכולה ללכת לאיבוד, וזה בסדר.
+     */
+    public void cachePrediction(int secondsAhead, long version, PredictionResult result, int maxEntries) {
+        CachedPrediction[] cached = predictions;
+        if (version != this.version) {
+            return; // הגיעה מדידה חדשה בזמן החישוב
+        }
+        int kept = 0;
+        CachedPrediction[] updated = new CachedPrediction[Math.min(maxEntries, cached == null ? 1 : cached.length + 1)];
+        updated[kept++] = new CachedPrediction(secondsAhead, version, result);
+        if (cached != null) {
+            for (CachedPrediction entry : cached) {
+                if (kept == updated.length) {
+                    break;
+                }
+                if (entry.secondsAhead != secondsAhead && entry.version == version) {
+                    updated[kept++] = entry;
+                }
+            }
+        }
+        predictions = kept == updated.length ? updated : Arrays.copyOf(updated, kept);
+    }
+
+    private static final class CachedPrediction {
+        final int secondsAhead;
+        final long version;
+        final PredictionResult result;
+
+        CachedPrediction(int secondsAhead, long version, PredictionResult result) {
+            this.secondsAhead = secondsAhead;
+            this.version = version;
+            this.result = result;
+        }
+    }
+}
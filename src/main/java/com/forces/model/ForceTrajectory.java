@@ -1,99 +1,233 @@
 package com.forces.model;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class ForceTrajectory {
+
+    public static final int DEFAULT_MAX_HISTORY_SIZE = 50;
+
+    private static final int INITIAL_BUFFER_SIZE = 16;
+
+    // משקל הדגימה החדשה ב-EWMA של מהירות וכיוון
+    private static final double SMOOTHING_FACTOR = 0.3;
+
+    // מצב ה-EWMA: מהירות, וקטור כיוון (x, y) ושני הדגלים (0/1)
+    public static final int SMOOTHING_STATE_SIZE = 5;
     
     @JsonProperty("forceId")
     private String forceId;
     
-    @JsonProperty("locations")
-    private List<LocationPoint> locations;
-    
     @JsonProperty("maxHistorySize")
-    private int maxHistorySize = 50; // שמור עד 50 מיקומים אחרונים
+    private int maxHistorySize = DEFAULT_MAX_HISTORY_SIZE; // שמור עד N מיקומים אחרונים
+
+    // Ring buffer במערכים מקבילים - head הוא המיקום הישן ביותר
+    private double[] latitudes;
+    private double[] longitudes;
+    private long[] timestamps;
+    // מרחק מהנקודה הקודמת לכל נקודה (במטרים)
+    private double[] segmentDistances;
+    private int head;
+    private int size;
+
+    // אגרגטים רצים - מתעדכנים בהוספה ובפינוי, כך שקריאת מהירות וכיוון היא O(1)
+    private double totalDistance;
+    private double currentHeading;
+    private double smoothedSpeed;
+    private double smoothedHeadingX;
+    private double smoothedHeadingY;
+    private boolean hasSmoothedSpeed;
+    private boolean hasSmoothedHeading;
 
     public ForceTrajectory() {
-        this.locations = new ArrayList<>();
+        this(null, DEFAULT_MAX_HISTORY_SIZE);
     }
 
     public ForceTrajectory(String forceId) {
+        this(forceId, DEFAULT_MAX_HISTORY_SIZE);
+    }
+
+    public ForceTrajectory(String forceId, int maxHistorySize) {
+        if (maxHistorySize < 1) {
+            throw new IllegalArgumentException("maxHistorySize must be positive: " + maxHistorySize);
+        }
         this.forceId = forceId;
-        this.locations = new ArrayList<>();
+        this.maxHistorySize = maxHistorySize;
+        allocate(Math.min(maxHistorySize, INITIAL_BUFFER_SIZE));
     }
 
-    // הוספת מיקום חדש
+    // הוספת מיקום חדש - O(1), המיקום הישן ביותר נדרס כשהבאפר מלא
     public void addLocation(double latitude, double longitude, long timestamp) {
-        LocationPoint point = new LocationPoint(latitude, longitude, timestamp);
-        locations.add(point);
-        
-        // שמור רק את ה-N מיקומים האחרונים
-        if (locations.size() > maxHistorySize) {
-            locations.remove(0);
+        double segmentDistance = size > 0 ? appendSegment(latitude, longitude, timestamp) : 0.0;
+
+        if (size == maxHistorySize) {
+            // פינוי הנקודה הישנה ביותר - המקטע שלה יוצא מהחלון
+            int oldest = head;
+            head = next(head);
+            totalDistance -= segmentDistances[head];
+            write(oldest, latitude, longitude, timestamp, segmentDistance);
+            totalDistance += segmentDistance;
+
+            // חישוב מחדש של הסכום פעם בסיבוב מלא, למניעת הצטברות שגיאות עיגול
+            if (head == 0) {
+                recomputeTotalDistance();
+            }
+            return;
         }
+
+        if (size == latitudes.length) {
+            resize(Math.min(maxHistorySize, size * 2));
+        }
+        write(physicalIndex(size), latitude, longitude, timestamp, segmentDistance);
+        size++;
+        totalDistance += size > 1 ? segmentDistance : 0.0;
     }
 
-    // קבלת כל המיקומים
+    // עדכון כיוון ו-EWMA לפי המקטע מהנקודה האחרונה לנקודה החדשה, מחזיר את אורך המקטע
+    private double appendSegment(double latitude, double longitude, long timestamp) {
+        int last = physicalIndex(size - 1);
+        double prevLatitude = latitudes[last];
+        double prevLongitude = longitudes[last];
+
+        double distance = calculateDistance(prevLatitude, prevLongitude, latitude, longitude);
+        double heading = calculateBearing(prevLatitude, prevLongitude, latitude, longitude);
+        currentHeading = heading;
+
+        double seconds = (timestamp - timestamps[last]) / 1000.0;
+        if (seconds > 0) {
+            double speed = distance / seconds;
+            smoothedSpeed = hasSmoothedSpeed
+                    ? SMOOTHING_FACTOR * speed + (1 - SMOOTHING_FACTOR) * smoothedSpeed
+                    : speed;
+            hasSmoothedSpeed = true;
+        }
+
+        // ממוצע הכיוון על וקטור יחידה, כדי ש-359° ו-1° לא ימוצעו ל-180°
+        double headingRadians = Math.toRadians(heading);
+        double hx = Math.cos(headingRadians);
+        double hy = Math.sin(headingRadians);
+        if (hasSmoothedHeading) {
+            smoothedHeadingX = SMOOTHING_FACTOR * hx + (1 - SMOOTHING_FACTOR) * smoothedHeadingX;
+            smoothedHeadingY = SMOOTHING_FACTOR * hy + (1 - SMOOTHING_FACTOR) * smoothedHeadingY;
+        } else {
+            smoothedHeadingX = hx;
+            smoothedHeadingY = hy;
+            hasSmoothedHeading = true;
+        }
+
+        return distance;
+    }
+
+    private void write(int index, double latitude, double longitude, long timestamp, double segmentDistance) {
+        latitudes[index] = latitude;
+        longitudes[index] = longitude;
+        timestamps[index] = timestamp;
+        segmentDistances[index] = segmentDistance;
+    }
+
+    private void recomputeTotalDistance() {
+        double sum = 0.0;
+        for (int i = 1; i < size; i++) {
+            sum += segmentDistances[physicalIndex(i)];
+        }
+        totalDistance = sum;
+    }
+
+    // קבלת כל המיקומים - view על הבאפר, ללא העתקה
+    @JsonProperty("locations")
     public List<LocationPoint> getLocations() {
-        return new ArrayList<>(locations);
+        return new LocationView(0, size);
     }
 
-    // קבלת N מיקומים אחרונים
+    // קבלת N מיקומים אחרונים - view על הבאפר, ללא העתקה
     public List<LocationPoint> getLastNLocations(int n) {
-        int size = locations.size();
-        if (size <= n) {
-            return new ArrayList<>(locations);
-        }
-        return new ArrayList<>(locations.subList(size - n, size));
+        int count = Math.max(0, Math.min(n, size));
+        return new LocationView(size - count, count);
     }
 
     // קבלת המיקום האחרון
     public LocationPoint getLastLocation() {
-        if (locations.isEmpty()) {
+        if (size == 0) {
             return null;
         }
-        return locations.get(locations.size() - 1);
+        return pointAt(size - 1);
     }
 
-    // חישוב מהירות ממוצעת (מטר לשנייה)
-    public double getAverageSpeed() {
-        if (locations.size() < 2) {
-            return 0.0;
-        }
+    // גישה ישירה לנקודה i (0 = הישנה ביותר) ללא יצירת אובייקט
+    public double getLatitude(int i) {
+        return latitudes[physicalIndex(checkIndex(i))];
+    }
+
+    public double getLongitude(int i) {
+        return longitudes[physicalIndex(checkIndex(i))];
+    }
 
-        double totalDistance = 0.0;
-        long totalTime = 0;
+    public long getTimestamp(int i) {
+        return timestamps[physicalIndex(checkIndex(i))];
+    }
 
-        for (int i = 1; i < locations.size(); i++) {
-            LocationPoint prev = locations.get(i - 1);
-            LocationPoint curr = locations.get(i);
-            
-            totalDistance += calculateDistance(prev, curr);
-            totalTime += (curr.getTimestamp() - prev.getTimestamp());
+    // מהירות ממוצעת על כל ההיסטוריה (מטר לשנייה) - O(1)
+    public double getAverageSpeed() {
+        if (size < 2) {
+            return 0.0;
         }
 
+        long totalTime = timestamps[physicalIndex(size - 1)] - timestamps[head];
         double totalTimeSeconds = totalTime / 1000.0;
         return totalTimeSeconds > 0 ? totalDistance / totalTimeSeconds : 0.0;
     }
 
-    // חישוב כיוון תנועה (זווית בדרגות, 0 = צפון)
+    // כיוון תנועה אחרון (זווית בדרגות, 0 = צפון) - O(1)
     public double getCurrentHeading() {
-        if (locations.size() < 2) {
+        return size < 2 ? 0.0 : currentHeading;
+    }
+
+    // מהירות מוחלקת (EWMA על מהירויות המקטעים)
+    public double getSmoothedSpeed() {
+        return size < 2 ? 0.0 : smoothedSpeed;
+    }
+
+    // כיוון מוחלק (EWMA על וקטורי הכיוון), בדרגות
+    public double getSmoothedHeading() {
+        if (size < 2) {
             return 0.0;
         }
+        double bearing = Math.toDegrees(Math.atan2(smoothedHeadingY, smoothedHeadingX));
+        return (bearing + 360) % 360;
+    }
 
-        LocationPoint prev = locations.get(locations.size() - 2);
-        LocationPoint curr = locations.get(locations.size() - 1);
+    /**
+     * העתקת מצב ה-EWMA ל-target (SMOOTHING_STATE_SIZE ערכים) - לשמירת snapshot.
+     * ה-EWMA מחושב על כל המיקומים שהגיעו, לא רק על החלון, ולכן לא נבנה מחדש מהנקודות השמורות
+     */
+    public void exportSmoothing(double[] target) {
+        target[0] = smoothedSpeed;
+        target[1] = smoothedHeadingX;
+        target[2] = smoothedHeadingY;
+        target[3] = hasSmoothedSpeed ? 1 : 0;
+        target[4] = hasSmoothedHeading ? 1 : 0;
+    }
 
-        double lat1 = Math.toRadians(prev.getLatitude());
-        double lat2 = Math.toRadians(curr.getLatitude());
-        double lon1 = Math.toRadians(prev.getLongitude());
-        double lon2 = Math.toRadians(curr.getLongitude());
+    /**
+     * שחזור מצב ה-EWMA מ-source (בפורמט של exportSmoothing)
+     */
+    public void importSmoothing(double[] source) {
+        smoothedSpeed = source[0];
+        smoothedHeadingX = source[1];
+        smoothedHeadingY = source[2];
+        hasSmoothedSpeed = source[3] != 0;
+        hasSmoothedHeading = source[4] != 0;
+    }
 
-        double dLon = lon2 - lon1;
+    // חישוב כיוון בין שתי נקודות (זווית בדרגות, 0 = צפון)
+    private static double calculateBearing(double latitude1, double longitude1,
+                                           double latitude2, double longitude2) {
+        double lat1 = Math.toRadians(latitude1);
+        double lat2 = Math.toRadians(latitude2);
+        double dLon = Math.toRadians(longitude2 - longitude1);
         
         double y = Math.sin(dLon) * Math.cos(lat2);
         double x = Math.cos(lat1) * Math.sin(lat2) - 
@@ -104,13 +238,14 @@ public class ForceTrajectory {
     }
 
     // חישוב מרחק בין שתי נקודות (Haversine)
-    private double calculateDistance(LocationPoint p1, LocationPoint p2) {
+    private static double calculateDistance(double latitude1, double longitude1,
+                                            double latitude2, double longitude2) {
         final int R = 6371000; // רדיוס כדור הארץ במטרים
         
-        double lat1 = Math.toRadians(p1.getLatitude());
-        double lat2 = Math.toRadians(p2.getLatitude());
-        double dLat = Math.toRadians(p2.getLatitude() - p1.getLatitude());
-        double dLon = Math.toRadians(p2.getLongitude() - p1.getLongitude());
+        double lat1 = Math.toRadians(latitude1);
+        double lat2 = Math.toRadians(latitude2);
+        double dLat = Math.toRadians(latitude2 - latitude1);
+        double dLon = Math.toRadians(longitude2 - longitude1);
         
         double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
                    Math.cos(lat1) * Math.cos(lat2) *
@@ -121,6 +256,59 @@ public class ForceTrajectory {
         return R * c;
     }
 
+    private LocationPoint pointAt(int i) {
+        int index = physicalIndex(i);
+        return new LocationPoint(latitudes[index], longitudes[index], timestamps[index]);
+    }
+
+    private int physicalIndex(int i) {
+        int index = head + i;
+        return index < latitudes.length ? index : index - latitudes.length;
+    }
+
+    private int next(int index) {
+        return index + 1 < latitudes.length ? index + 1 : 0;
+    }
+
+    private int checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+        return i;
+    }
+
+    private void allocate(int length) {
+        latitudes = new double[length];
+        longitudes = new double[length];
+        timestamps = new long[length];
+        segmentDistances = new double[length];
+        head = 0;
+        size = 0;
+    }
+
+    // העתקה למערכים חדשים בסדר לינארי, שומר את ה-keep מיקומים האחרונים
+    private void resize(int length) {
+        int keep = Math.min(size, length);
+        double[] newLatitudes = new double[length];
+        double[] newLongitudes = new double[length];
+        long[] newTimestamps = new long[length];
+        double[] newSegmentDistances = new double[length];
+        for (int i = 0; i < keep; i++) {
+            int index = physicalIndex(size - keep + i);
+            newLatitudes[i] = latitudes[index];
+            newLongitudes[i] = longitudes[index];
+            newTimestamps[i] = timestamps[index];
+            newSegmentDistances[i] = segmentDistances[index];
+        }
+        latitudes = newLatitudes;
+        longitudes = newLongitudes;
+        timestamps = newTimestamps;
+        segmentDistances = newSegmentDistances;
+        head = 0;
+        size = keep;
+        recomputeTotalDistance();
+    }
+
     // Getters and Setters
     public String getForceId() {
         return forceId;
@@ -135,11 +323,41 @@ public class ForceTrajectory {
     }
 
     public void setMaxHistorySize(int maxHistorySize) {
+        if (maxHistorySize < 1) {
+            throw new IllegalArgumentException("maxHistorySize must be positive: " + maxHistorySize);
+        }
         this.maxHistorySize = maxHistorySize;
+        if (size > maxHistorySize || latitudes.length > maxHistorySize) {
+            resize(Math.min(latitudes.length, maxHistorySize));
+        }
     }
 
     public int getLocationCount() {
-        return locations.size();
+        return size;
+    }
+
+    // View לקריאה בלבד על טווח מהבאפר - LocationPoint נוצר רק בגישה
+    private class LocationView extends AbstractList<LocationPoint> implements RandomAccess {
+        private final int offset;
+        private final int count;
+
+        LocationView(int offset, int count) {
+            this.offset = offset;
+            this.count = count;
+        }
+
+        @Override
+        public LocationPoint get(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+            }
+            return pointAt(offset + index);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
     }
 
     // Inner class - נקודת מיקום בודדת
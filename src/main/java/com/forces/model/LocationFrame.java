@@ -0,0 +1,138 @@
+package com.forces.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * קידוד בינארי בפריסה קבועה ל-frame של מיקומים (/topic/locations.bin).
+ * big-endian:
+ *   byte version, int count, long baseTimestamp,
+ *   ולכל מיקום: byte idLength, id (UTF-8), int lat·10⁷, int lng·10⁷,
+ *   int (timestamp - baseTimestamp) במילישניות עם סימן, byte type.
+ * הפרש שלא נכנס ב-int (כ-24 ימים לכל כיוון) נכתב כ-Integer.MIN_VALUE ואחריו long עם הזמן המלא.
+ * בערך 22 בתים למיקום במקום כ-150 ב-JSON. השם לא נשלח - הוא לא משתנה בין עדכונים
+ * וזמין ב-/api/forces/all. סוג שאינו מוכר נקלט בצד השני כ-"other".
+ * מיקום שאי אפשר לקודד (id ארוך מ-255 בתים, קואורדינטה מחוץ לטווח) מושמט מה-frame -
+ * הוא עדיין נשלח ב-JSON, ושאר ה-frame לא נפגע.
+ */
+public final class LocationFrame {
+
+    public static final byte VERSION = 2;
+
+    private static final double SCALE = 1e7;
+    private static final int HEADER_SIZE = 1 + 4 + 8;
+    private static final int MAX_ID_LENGTH = 255;
+
+    // סימון להפרש זמן שלא נכנס ב-int - אחריו מגיע הזמן המלא
+    private static final int ABSOLUTE_TIMESTAMP = Integer.MIN_VALUE;
+
+    // lat/lng·10⁷ חייבים להיכנס ב-int
+    private static final double MAX_COORDINATE = Integer.MAX_VALUE / SCALE;
+
+    private static final String[] TYPES = {"infantry", "armor", "artillery", "other"};
+    private static final byte OTHER = 3;
+
+    private LocationFrame() {}
+
+    public static byte[] encode(List<ForceLocation> locations) {
+        // בסיס הזמן - המיקום הראשון; ב-frame רגיל כל ההפרשים קטנים
+        long base = locations.isEmpty() ? 0 : locations.get(0).getTimestamp();
+        int count = 0;
+        int size = HEADER_SIZE;
+        byte[][] ids = new byte[locations.size()][];
+        for (int i = 0; i < ids.length; i++) {
+            ForceLocation location = locations.get(i);
+            byte[] id = location.getId().getBytes(StandardCharsets.UTF_8);
+            if (id.length > MAX_ID_LENGTH
+                    || !fits(location.getLatitude()) || !fits(location.getLongitude())) {
+                continue;
+            }
+            ids[i] = id;
+            count++;
+            size += 1 + id.length + 4 + 4 + 4 + 1;
+            if (delta(location.getTimestamp(), base) == ABSOLUTE_TIMESTAMP) {
+                size += 8;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION);
+        buffer.putInt(count);
+        buffer.putLong(base);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == null) {
+                continue;
+            }
+            ForceLocation location = locations.get(i);
+            buffer.put((byte) ids[i].length);
+            buffer.put(ids[i]);
+            buffer.putInt((int) Math.round(location.getLatitude() * SCALE));
+            buffer.putInt((int) Math.round(location.getLongitude() * SCALE));
+            int delta = delta(location.getTimestamp(), base);
+            buffer.putInt(delta);
+            if (delta == ABSOLUTE_TIMESTAMP) {
+                buffer.putLong(location.getTimestamp());
+            }
+            buffer.put(typeCode(location.getType()));
+        }
+        return buffer.array();
+    }
+
+    public static List<ForceLocation> decode(byte[] frame) {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported location frame version: " + version);
+        }
+        int count = buffer.getInt();
+        long base = buffer.getLong();
+
+        List<ForceLocation> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] id = new byte[buffer.get() & 0xff];
+            buffer.get(id);
+            ForceLocation location = new ForceLocation();
+            location.setId(new String(id, StandardCharsets.UTF_8));
+            location.setLatitude(buffer.getInt() / SCALE);
+            location.setLongitude(buffer.getInt() / SCALE);
+            int delta = buffer.getInt();
+            location.setTimestamp(delta == ABSOLUTE_TIMESTAMP ? buffer.getLong() : base + delta);
+            location.setType(typeName(buffer.get()));
+            locations.add(location);
+        }
+        return locations;
+    }
+
+    // ההפרש מהבסיס, או ABSOLUTE_TIMESTAMP אם הוא לא נכנס ב-int (הסימון עצמו לא משמש כהפרש)
+    private static int delta(long timestamp, long base) {
+        long delta;
+        try {
+            delta = Math.subtractExact(timestamp, base);
+        } catch (ArithmeticException e) {
+            return ABSOLUTE_TIMESTAMP;
+        }
+        return delta > ABSOLUTE_TIMESTAMP && delta <= Integer.MAX_VALUE ? (int) delta : ABSOLUTE_TIMESTAMP;
+    }
+
+    private static boolean fits(double coordinate) {
+        return Math.abs(coordinate) <= MAX_COORDINATE;
+    }
+
+    /**
+     * קוד הסוג (0-3); סוג לא מוכר נשמר כ-other
+     */
+    public static byte typeCode(String type) {
+        for (byte i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) {
+                return i;
+            }
+        }
+        return OTHER;
+    }
+
+    public static String typeName(int code) {
+        return TYPES[code >= 0 && code < TYPES.length ? code : OTHER];
+    }
+}
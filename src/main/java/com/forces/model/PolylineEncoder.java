@@ -0,0 +1,85 @@
+package com.forces.model;
+
+import java.util.Arrays;
+
+/**
+ * קידוד מסלול בשיטת Encoded Polyline: כל ערך מעוגל לשלם לפי precision ספרות,
+ * נשמר כהפרש מהערך הקודם, ומקודד ב-zigzag לקבוצות של 5 ביטים כתווי ASCII (63-126).
+ *
+ * path - זוגות lat,lng לסירוגין (תואם לספריות polyline סטנדרטיות עם אותו precision).
+ * times - זמנים במילישניות באותה שיטה, כשהערך הראשון הוא הפרש מ-0 (כלומר הזמן המלא).
+ * נקודה טיפוסית עולה ~4-6 תווים למיקום ו-2-3 לזמן, לעומת ~70 בייט של LocationPoint ב-JSON.
+ */
+public final class PolylineEncoder {
+
+    public static final int DEFAULT_PRECISION = 5;
+    public static final int MAX_PRECISION = 7;
+
+    private PolylineEncoder() {
+    }
+
+    public static double factor(int precision) {
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be between 0 and " + MAX_PRECISION + ": " + precision);
+        }
+        return Math.pow(10, precision);
+    }
+
+    /**
+     * קידוד count הנקודות הראשונות של המסלול ישירות מה-ring buffer, ללא רשימת ביניים
+     */
+    public static void encodePath(ForceTrajectory trajectory, int count, double factor, StringBuilder out) {
+        long previousLat = 0;
+        long previousLng = 0;
+        for (int i = 0; i < count; i++) {
+            long lat = Math.round(trajectory.getLatitude(i) * factor);
+            long lng = Math.round(trajectory.getLongitude(i) * factor);
+            encodeValue(lat - previousLat, out);
+            encodeValue(lng - previousLng, out);
+            previousLat = lat;
+            previousLng = lng;
+        }
+    }
+
+    public static void encodeTimes(ForceTrajectory trajectory, int count, StringBuilder out) {
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long timestamp = trajectory.getTimestamp(i);
+            encodeValue(timestamp - previous, out);
+            previous = timestamp;
+        }
+    }
+
+    /**
+     * פענוח לערכים מצטברים: path עם dimensions = 2 (lat,lng לסירוגין), times עם dimensions = 1 ו-factor = 1
+     */
+    public static double[] decode(String encoded, double factor, int dimensions) {
+        double[] values = new double[encoded.length()];
+        long[] current = new long[dimensions];
+        int count = 0;
+        int index = 0;
+        while (index < encoded.length()) {
+            long result = 0;
+            int shift = 0;
+            int chunk;
+            do {
+                chunk = encoded.charAt(index++) - 63;
+                result |= (long) (chunk & 0x1f) << shift;
+                shift += 5;
+            } while (chunk >= 0x20);
+            int dimension = count % dimensions;
+            current[dimension] += (result & 1) != 0 ? ~(result >>> 1) : result >>> 1;
+            values[count++] = current[dimension] / factor;
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    private static void encodeValue(long value, StringBuilder out) {
+        long zigzag = value < 0 ? ~(value << 1) : value << 1;
+        while (zigzag >= 0x20) {
+            out.append((char) ((0x20 | (zigzag & 0x1f)) + 63));
+            zigzag >>>= 5;
+        }
+        out.append((char) (zigzag + 63));
+    }
+}
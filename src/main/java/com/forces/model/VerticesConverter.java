@@ -0,0 +1,39 @@
+package com.forces.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * vertices של DeadZone בעמודת טקסט: המספרים מופרדים בפסיקים, בלי איבוד דיוק
+ */
+@Converter
+public class VerticesConverter implements AttributeConverter<double[], String> {
+
+    @Override
+    public String convertToDatabaseColumn(double[] vertices) {
+        if (vertices == null) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder(vertices.length * 12);
+        for (int i = 0; i < vertices.length; i++) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(vertices[i]);
+        }
+        return text.toString();
+    }
+
+    @Override
+    public double[] convertToEntityAttribute(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        String[] parts = text.split(",");
+        double[] vertices = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            vertices[i] = Double.parseDouble(parts[i]);
+        }
+        return vertices;
+    }
+}
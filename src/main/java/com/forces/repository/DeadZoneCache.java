@@ -0,0 +1,105 @@
+package com.forces.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.forces.algorithm.DeadZoneIndex;
+import com.forces.model.DeadZone;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cache מעל DeadZoneRepository: כל ה-Dead Zones מוחזקים בזיכרון ב-snapshot בלתי משתנה.
+ * כתיבות עוברות ל-DB (write-through) ומחליפות את ה-snapshot; קריאות לא ניגשות ל-DB
+ * ולא לוקחות נעילה. ההנחה היא שכל השינויים עוברים דרך ה-cache.
+ */
+@Component
+public class DeadZoneCache {
+
+    @Autowired
+    private DeadZoneRepository repository;
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), DeadZoneIndex.EMPTY, 0);
+
+    @PostConstruct
+    public synchronized void reload() {
+        Map<String, DeadZone> zones = new LinkedHashMap<>();
+        for (DeadZone zone : repository.findAll()) {
+            zones.put(zone.getId(), zone);
+        }
+        // גרסה התחלתית לפי זמן הטעינה, כדי ש-ETag מלפני restart לא יתאים בטעות
+        long version = Math.max(snapshot.version + 1, System.currentTimeMillis());
+        snapshot = new Snapshot(zones, DeadZoneIndex.build(zones.values()), version);
+    }
+
+    public synchronized DeadZone save(DeadZone deadzone) {
+        DeadZone saved = repository.save(deadzone);
+        Map<String, DeadZone> zones = new LinkedHashMap<>(snapshot.zones);
+        zones.put(saved.getId(), saved);
+        publish(zones, snapshot.index.with(saved));
+        return saved;
+    }
+
+    public synchronized boolean deleteById(String id) {
+        if (!snapshot.zones.containsKey(id)) {
+            return false;
+        }
+        repository.deleteById(id);
+        Map<String, DeadZone> zones = new LinkedHashMap<>(snapshot.zones);
+        zones.remove(id);
+        publish(zones, snapshot.index.without(id));
+        return true;
+    }
+
+    public synchronized void deleteAll() {
+        repository.deleteAll();
+        publish(Collections.emptyMap(), DeadZoneIndex.EMPTY);
+    }
+
+    public List<DeadZone> findAll() {
+        return snapshot.list;
+    }
+
+    public DeadZone findById(String id) {
+        return snapshot.zones.get(id);
+    }
+
+    public int count() {
+        return snapshot.zones.size();
+    }
+
+    public DeadZoneIndex getIndex() {
+        return snapshot.index;
+    }
+
+    /**
+     * גרסת ה-snapshot - עולה בכל שינוי
+     */
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    private void publish(Map<String, DeadZone> zones, DeadZoneIndex index) {
+        snapshot = new Snapshot(zones, index, snapshot.version + 1);
+    }
+
+    private static final class Snapshot {
+        private final Map<String, DeadZone> zones;
+        private final List<DeadZone> list;
+        private final DeadZoneIndex index;
+        private final long version;
+
+        Snapshot(Map<String, DeadZone> zones, DeadZoneIndex index, long version) {
+            this.zones = Collections.unmodifiableMap(zones);
+            this.list = Collections.unmodifiableList(new ArrayList<>(zones.values()));
+            this.index = index;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.forces.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * מילון force id -> אינדקס רץ, כדי שרשומת הלוג תהיה בגודל קבוע.
+ * נשמר בקובץ append-only (writeUTF לכל id, לפי סדר האינדקסים).
+ * אינדקסים חדשים נוצרים רק מה-thread הכותב של הלוג; קריאה מכל thread.
+ */
+final class ForceDictionary {
+
+    private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+    private volatile String[] ids = new String[64];
+    private int size;
+
+    private final FileOutputStream file;
+    private final DataOutputStream out;
+
+    ForceDictionary(Path path) throws IOException {
+        if (Files.exists(path)) {
+            load(path);
+        }
+        file = new FileOutputStream(path.toFile(), true);
+        out = new DataOutputStream(new BufferedOutputStream(file));
+    }
+
+    /**
+     * האינדקס של הכוח, או -1 אם לא הופיע בלוג
+     */
+    int find(String forceId) {
+        Integer index = indexes.get(forceId);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * האינדקס של הכוח, עם הוספה למילון אם חדש (thread כותב בלבד)
+     */
+    int indexOf(String forceId) throws IOException {
+        Integer index = indexes.get(forceId);
+        if (index != null) {
+            return index;
+        }
+        out.writeUTF(forceId);
+        add(forceId);
+        return size - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String idOf(int index) {
+        String[] current = ids;
+        return index < current.length ? current[index] : null;
+    }
+
+    /**
+     * כתיבת ה-ids החדשים לקובץ - לפני ה-commit של רשומות שמפנות אליהם
+     */
+    void flush(boolean fsync) throws IOException {
+        out.flush();
+        if (fsync) {
+            file.getFD().sync();
+        }
+    }
+
+    void close() throws IOException {
+        out.close();
+    }
+
+    private void add(String forceId) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size] = forceId;
+        indexes.put(forceId, size);
+        size++;
+    }
+
+    // טעינת הקובץ; רשומה אחרונה חלקית (כתיבה שנקטעה) נחתכת כדי שההוספות הבאות יתחילו במקום תקין
+    private void load(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteArrayInputStream stream = new ByteArrayInputStream(bytes);
+        DataInputStream in = new DataInputStream(stream);
+        int valid = 0;
+        try {
+            while (stream.available() > 0) {
+                add(in.readUTF());
+                valid = bytes.length - stream.available();
+            }
+        } catch (EOFException e) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.forces.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.forces.algorithm.KalmanBank;
+import com.forces.model.ForceState;
+import com.forces.model.ForceTrajectory;
+
+/**
+ * מאגר המצב של כל הכוחות בזיכרון: מפה אחת של ForceState, וה-KalmanBank שמחזיק את
+ * מצב הפילטרים שלהם. ForceService ו-TrajectoryService עובדים מול אותה רשומה.
+ */
+@Component
+public class ForceStateStore {
+
+    // גודל היסטוריית המיקומים לכל כוח
+    @Value("${tracking.trajectory.max-history-size:" + ForceTrajectory.DEFAULT_MAX_HISTORY_SIZE + "}")
+    private int maxHistorySize = ForceTrajectory.DEFAULT_MAX_HISTORY_SIZE;
+
+    private final Map<String, ForceState> states = new ConcurrentHashMap<>();
+
+    // מצב ה-Kalman Filter של כל הכוחות, במערכים רציפים
+    private final KalmanBank kalmanBank = new KalmanBank();
+
+    /**
+     * המצב של הכוח, או רשומה חדשה (מסלול ריק ו-slot חדש בפילטר) אם הכוח לא קיים
+     */
+    public ForceState getOrCreate(String forceId) {
+        return states.computeIfAbsent(forceId,
+                id -> new ForceState(id, newTrajectory(id), kalmanBank.allocate()));
+    }
+
+    public ForceState get(String forceId) {
+        return states.get(forceId);
+    }
+
+    /**
+     * הסרת הכוח ושחרור ה-slot שלו בפילטר
+     */
+    public ForceState remove(String forceId) {
+        ForceState removed = states.remove(forceId);
+        if (removed != null) {
+            kalmanBank.release(removed.getKalmanSlot());
+        }
+        return removed;
+    }
+
+    public void clear() {
+        states.clear();
+        kalmanBank.clear();
+    }
+
+    public Collection<ForceState> getAll() {
+        return states.values();
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    public KalmanBank getKalmanBank() {
+        return kalmanBank;
+    }
+
+    public ForceTrajectory newTrajectory(String forceId) {
+        return new ForceTrajectory(forceId, maxHistorySize);
+    }
+}
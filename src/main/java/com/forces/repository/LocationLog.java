@@ -0,0 +1,602 @@
+package com.forces.repository;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.forces.metrics.TrackingMetrics;
+import com.forces.model.ForceLocation;
+import com.forces.model.ForceTrajectory.LocationPoint;
+import com.forces.model.LocationFrame;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * היסטוריית מיקומים מלאה על דיסק: לוג append-only של רשומות בגודל קבוע (32 בייט),
+ * בקבצי segment ממופים לזיכרון. segment חדש נפתח כשהנוכחי מלא או כשעבר segment-minutes
+ * מאז שנפתח, כך שכל segment מכסה חלון זמן וקריאה לפי טווח זמן מדלגת על segments שלמים.
+ *
+ * ה-shards של הקליטה רק מכניסים מיקום לתור (בלי I/O); thread כותב יחיד מרוקן את התור
+ * במנות, כותב את כולן ומבצע commit אחד (ועם fsync - סנכרון אחד) לכל מנה - group commit.
+ * תור מלא מפיל את המיקום מההיסטוריה (tracking.history.dropped) ולא עוצר את הקליטה.
+ *
+ * מחיקת כוח ואיפוס מסלול נכתבים באותו תור כרשומות בקרה, כך שהשחזור מהלוג מחיל אותם
+ * באותו סדר ביחס למיקומים כמו בזמן אמת.
+ */
+@Component
+public class LocationLog {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationLog.class);
+
+    private static final String DICTIONARY_FILE = "forces.dict";
+
+    // מקסימום רשומות ל-commit אחד
+    private static final int MAX_BATCH = 4096;
+
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    // רשומת בקרה לא נזרקת מיד כשהתור מלא - אובדן שלה מחזיר בשחזור כוח שנמחק
+    private static final long CONTROL_OFFER_TIMEOUT_MS = 1000;
+
+    @Autowired
+    private TrackingMetrics metrics;
+
+    @Value("${tracking.history.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tracking.history.dir:data/history}")
+    private String directory;
+
+    // רשומות ל-segment (ברירת מחדל 1M = 32MB)
+    @Value("${tracking.history.segment-records:1048576}")
+    private int segmentRecords;
+
+    @Value("${tracking.history.segment-minutes:60}")
+    private long segmentMinutes;
+
+    @Value("${tracking.history.retention-hours:72}")
+    private long retentionHours;
+
+    @Value("${tracking.history.fsync:true}")
+    private boolean fsync;
+
+    @Value("${tracking.history.queue-capacity:65536}")
+    private int queueCapacity;
+
+    private Path root;
+    private ForceDictionary dictionary;
+
+    // ממוינים לפי id (זמן פתיחה); האחרון הוא ה-segment הפעיל
+    private final List<LogSegment> segments = new CopyOnWriteArrayList<>();
+    private volatile LogSegment active;
+    private long activeOpenedAt;
+
+    private BlockingQueue<ForceLocation> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    // כמה רשומות מהמנה הנוכחית כבר נוספו ל-segment (רק ב-thread הכותב)
+    private int appended;
+
+    // רשומות ממנות שנכשלו שכבר ב-segment ויעברו commit עם המנה הבאה (רק ב-thread הכותב)
+    private int uncommitted;
+
+    // כמה רשומות נכנסו לתור, וכמה מהן ה-thread הכותב כבר סיים (עברו commit או אבדו)
+    private final AtomicLong enqueued = new AtomicLong();
+    private volatile long processed;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            log.info("📼 Location history log disabled");
+            return;
+        }
+        root = Paths.get(directory);
+        Files.createDirectories(root);
+        dictionary = new ForceDictionary(root.resolve(DICTIONARY_FILE));
+
+        try (Stream<Path> files = Files.list(root)) {
+            for (Path path : files.filter(LogSegment::isSegmentFile).sorted().toList()) {
+                try {
+                    segments.add(LogSegment.open(path));
+                } catch (IOException e) {
+                    log.warn("⚠️ Skipping unreadable history segment {}: {}", path, e.getMessage());
+                }
+            }
+        }
+        roll();
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        metrics.historyQueueDepth(queue::size);
+        running = true;
+        writer = new Thread(this::runWriter, "history-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("📼 Location history log at {} ({} segments, {} forces)",
+                root.toAbsolutePath(), segments.size(), dictionary.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        for (LogSegment segment : segments) {
+            segment.close();
+        }
+        dictionary.close();
+    }
+
+    /**
+     * הוספת מיקום ללוג - לא חוסם, נכתב ב-commit הבא של ה-thread הכותב
+     */
+    public void append(ForceLocation location) {
+        if (queue == null) {
+            return;
+        }
+        if (queue.offer(location)) {
+            enqueued.incrementAndGet();
+        } else {
+            metrics.historyDropped(1);
+        }
+    }
+
+    public void appendAll(List<ForceLocation> locations) {
+        for (ForceLocation location : locations) {
+            append(location);
+        }
+    }
+
+    /**
+     * מחיקת הכוח (null - כל הכוחות), אחרי כל המיקומים שכבר נכנסו לתור
+     */
+    public void appendRemoved(String forceId) {
+        appendControl(new ControlRecord(forceId, LogSegment.TYPE_REMOVED));
+    }
+
+    /**
+     * איפוס המסלול והפילטר של הכוח (null - כל הכוחות)
+     */
+    public void appendTrajectoryReset(String forceId) {
+        appendControl(new ControlRecord(forceId, LogSegment.TYPE_TRAJECTORY_RESET));
+    }
+
+    private void appendControl(ControlRecord record) {
+        if (queue == null) {
+            return;
+        }
+        try {
+            if (queue.offer(record, CONTROL_OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                enqueued.incrementAndGet();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.error("❌ History queue full - {} record for {} not logged", record.type == LogSegment.TYPE_REMOVED
+                ? "removal" : "trajectory reset", record.getId() != null ? record.getId() : "all forces");
+        metrics.historyDropped(1);
+    }
+
+    /**
+     * מיקומי הכוח בטווח [from, to] (כולל), לפי סדר הכתיבה, עד limit נקודות.
+     * נקראים רק בלוקים של הכוח שחופפים לטווח (SegmentIndex).
+     */
+    public List<LocationPoint> read(String forceId, long from, long to, int limit) {
+        List<LocationPoint> result = new ArrayList<>();
+        forEachRecord(forceId, from, to, (segment, i) -> {
+            result.add(new LocationPoint(segment.latitude(i), segment.longitude(i), segment.timestamp(i)));
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    /**
+     * מסלול הכוח בטווח [from, to] מדולל לכל היותר ל-points נקודות: הטווח מחולק ל-points
+     * חלונות זמן שווים ומכל חלון נשמרת הנקודה האחרונה. זיכרון O(points) בלי קשר לאורך הטווח.
+     */
+    public List<LocationPoint> path(String forceId, long from, long to, int points) {
+        // ב-double: to - from חורג מ-long בטווח כמו [Long.MIN_VALUE, Long.MAX_VALUE]
+        double bucketWidth = ((double) to - from + 1) / points;
+        double[] lats = new double[points];
+        double[] lngs = new double[points];
+        long[] timestamps = new long[points];
+        boolean[] filled = new boolean[points];
+        forEachRecord(forceId, from, to, (segment, i) -> {
+            long timestamp = segment.timestamp(i);
+            int bucket = Math.max(0, Math.min(points - 1, (int) (((double) timestamp - from) / bucketWidth)));
+            lats[bucket] = segment.latitude(i);
+            lngs[bucket] = segment.longitude(i);
+            timestamps[bucket] = timestamp;
+            filled[bucket] = true;
+            return true;
+        });
+
+        List<LocationPoint> result = new ArrayList<>();
+        for (int b = 0; b < points; b++) {
+            if (filled[b]) {
+                result.add(new LocationPoint(lats[b], lngs[b], timestamps[b]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * מצב הצי בזמן at, באותו סדר כמו המצב החי: לכל כוח - המצב אחרי כל המיקומים שלו שנכתבו
+     * לפני המיקום הראשון שלו עם זמן מאוחר מ-at. המיקום הוא האחרון שנכתב (כמו ב-ForceService),
+     * והזמן הוא המקסימום עד אליו (כמו ה-clamp במסלול); הכוח נכלל אם הזמן ב-[at - lookback, at].
+     * segments בתחילת הלוג שכולם לפני at - lookback לא משנים את התוצאה ולא נקראים, ו-segment
+     * שכולו אחרי at רק עוצר את הכוחות שבו לפי האינדקס, בלי לקרוא רשומות.
+     * באותו אופן ברמת הבלוק (min/max של האינדקס): בלוק שכולו אחרי at רק עוצר את הכוחות שבו,
+     * ובלוק שכולו לפני החלון מדולג כל עוד לאף כוח פעיל אין עדיין זמן בחלון - מיקום מאוחר יותר
+     * בחלון ממילא דורס את מה שהיה בו.
+     */
+    public List<ForceLocation> snapshotAt(long at, long lookback) {
+        List<ForceLocation> result = new ArrayList<>();
+        if (dictionary == null) {
+            return result;
+        }
+        long from = at - lookback;
+        int forces = dictionary.size();
+        BitSet stopped = new BitSet(forces);
+        LogSegment[] lastSegment = new LogSegment[forces];
+        int[] lastRecord = new int[forces];
+        long[] latest = new long[forces];
+        Arrays.fill(latest, Long.MIN_VALUE);
+        // כוחות שלא נעצרו ושהזמן שלהם כבר בחלון
+        int inWindow = 0;
+
+        List<LogSegment> ordered = new ArrayList<>(segments);
+        int first = 0;
+        while (first < ordered.size() && ordered.get(first).getMaxTimestamp() < from) {
+            first++;
+        }
+        for (int s = first; s < ordered.size() && stopped.cardinality() < forces; s++) {
+            LogSegment segment = ordered.get(s);
+            int count = segment.getCount();
+            if (count == 0) {
+                continue;
+            }
+            if (segment.getMinTimestamp() > at) {
+                for (int forceIndex : segment.index().forceIndexes()) {
+                    stopped.set(forceIndex);
+                }
+                continue;
+            }
+            SegmentIndex index = segment.index();
+            // בלוק אחרון שיש בו רק רשומות בקרה לא נכנס לאינדקס
+            int blockCount = Math.min(index.blockCount(), blocks(count));
+            for (int b = 0; b < blockCount; b++) {
+                boolean afterAt = index.blockMin(b) > at;
+                if (!afterAt && index.blockMax(b) < from && inWindow == 0) {
+                    continue;
+                }
+                int start = b * SegmentIndex.BLOCK_RECORDS;
+                int end = Math.min(start + SegmentIndex.BLOCK_RECORDS, count);
+                for (int i = start; i < end; i++) {
+                    if (!segment.isLocation(i)) {
+                        continue;
+                    }
+                    int forceIndex = segment.forceIndex(i);
+                    // כוח שנוסף למילון אחרי תחילת השאילתה לא נכלל
+                    if (forceIndex >= forces || stopped.get(forceIndex)) {
+                        continue;
+                    }
+                    long timestamp = afterAt ? Long.MAX_VALUE : segment.timestamp(i);
+                    if (timestamp > at) {
+                        stopped.set(forceIndex);
+                        if (latest[forceIndex] >= from) {
+                            inWindow--;
+                        }
+                        continue;
+                    }
+                    if (latest[forceIndex] < from && timestamp >= from) {
+                        inWindow++;
+                    }
+                    lastSegment[forceIndex] = segment;
+                    lastRecord[forceIndex] = i;
+                    latest[forceIndex] = Math.max(latest[forceIndex], timestamp);
+                }
+            }
+        }
+
+        for (int forceIndex = 0; forceIndex < forces; forceIndex++) {
+            LogSegment segment = lastSegment[forceIndex];
+            if (segment == null || latest[forceIndex] < from) {
+                continue;
+            }
+            int i = lastRecord[forceIndex];
+            ForceLocation location = new ForceLocation();
+            location.setId(dictionary.idOf(forceIndex));
+            location.setType(LocationFrame.typeName(segment.type(i)));
+            location.setLatitude(segment.latitude(i));
+            location.setLongitude(segment.longitude(i));
+            location.setTimestamp(latest[forceIndex]);
+            result.add(location);
+        }
+        return result;
+    }
+
+    /**
+     * המיקום הנוכחי בלוג (סוף הרשומות שכבר עברו commit), או null אם הלוג כבוי.
+     * כל רשומה לפני המיקום כבר הוחלה על המצב בזיכרון - הלוג נכתב אחרי הקליטה.
+     */
+    public Position position() {
+        LogSegment current = active;
+        return current != null ? new Position(current.getId(), current.getCount()) : null;
+    }
+
+    /**
+     * המיקום בלוג אחרי שכל מה שכבר נכנס לתור עבר commit, או null אם הלוג כבוי.
+     * נקרא כשהקליטה עצורה: כל מיקום שהוחל על המצב כבר בתור, ולכן המיקום המוחזר מפריד
+     * בדיוק בין מה שבמצב (לפניו) למה שעוד לא (אחריו).
+     */
+    public Position drainedPosition(long timeoutMillis) throws IOException {
+        if (queue == null) {
+            return null;
+        }
+        long target = enqueued.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (processed < target) {
+            if (System.nanoTime() > deadline) {
+                throw new IOException("History log did not drain within " + timeoutMillis + " ms");
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while draining the history log");
+            }
+        }
+        return position();
+    }
+
+    /**
+     * מעבר לפי סדר הכתיבה על כל הרשומות מ-from ואילך (null - מתחילת הלוג), כולל רשומות הבקרה;
+     * מחזיר את מספר הרשומות
+     */
+    public long replay(Position from, RecordHandler handler) {
+        long replayed = 0;
+        for (LogSegment segment : segments) {
+            if (from != null && segment.getId() < from.getSegmentId()) {
+                continue;
+            }
+            int start = from != null && segment.getId() == from.getSegmentId() ? from.getIndex() : 0;
+            int count = segment.getCount();
+            for (int i = start; i < count; i++) {
+                int type = segment.type(i);
+                int forceIndex = segment.forceIndex(i);
+                String forceId = forceIndex != LogSegment.ALL_FORCES ? dictionary.idOf(forceIndex) : null;
+                if (type == LogSegment.TYPE_REMOVED) {
+                    handler.removed(forceId);
+                } else if (type == LogSegment.TYPE_TRAJECTORY_RESET) {
+                    handler.trajectoryReset(forceId);
+                } else {
+                    handler.location(forceId, LocationFrame.typeName(type),
+                            segment.timestamp(i), segment.latitude(i), segment.longitude(i));
+                }
+            }
+            replayed += Math.max(0, count - start);
+        }
+        return replayed;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * מחיקת segments שנכתבו לפני יותר מ-retention-hours (ה-segment הפעיל לא נמחק).
+     * הגיל לפי שעון השרת ולא לפי הזמנים בהודעות: segment נכתב עד שנפתח הבא אחריו, וה-id
+     * של segment הוא זמן הפתיחה שלו - כך שהוא פג כשה-id של הבא ישן מה-cutoff
+     */
+    @Scheduled(fixedDelayString = "${tracking.history.retention-check-ms:60000}")
+    public void applyRetention() {
+        if (!running) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours);
+        List<LogSegment> ordered = new ArrayList<>(segments);
+        for (int s = 0; s + 1 < ordered.size(); s++) {
+            LogSegment segment = ordered.get(s);
+            if (segment == active || ordered.get(s + 1).getId() >= cutoff) {
+                break;
+            }
+            segments.remove(segment);
+            try {
+                segment.delete();
+                log.info("🗑️ Deleted history segment {} ({} records)", segment.getId(), segment.getCount());
+            } catch (IOException e) {
+                log.warn("⚠️ Failed to delete history segment {}: {}", segment.getId(), e.getMessage());
+            }
+        }
+    }
+
+    // מעבר על רשומות הכוח בטווח, רק בבלוקים שהאינדקס מצביע עליהם; visitor מחזיר false לעצירה
+    private void forEachRecord(String forceId, long from, long to, RecordVisitor visitor) {
+        if (dictionary == null) {
+            return;
+        }
+        int forceIndex = dictionary.find(forceId);
+        if (forceIndex < 0) {
+            return;
+        }
+        for (LogSegment segment : segments) {
+            if (!segment.overlaps(from, to)) {
+                continue;
+            }
+            int count = segment.getCount();
+            for (int block : segment.index().blocksOf(forceIndex, from, to)) {
+                int start = block * SegmentIndex.BLOCK_RECORDS;
+                int end = Math.min(start + SegmentIndex.BLOCK_RECORDS, count);
+                for (int i = start; i < end; i++) {
+                    if (segment.forceIndex(i) != forceIndex || !segment.isLocation(i)) {
+                        continue;
+                    }
+                    long timestamp = segment.timestamp(i);
+                    if (timestamp >= from && timestamp <= to && !visitor.visit(segment, i)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int blocks(int records) {
+        return (records + SegmentIndex.BLOCK_RECORDS - 1) / SegmentIndex.BLOCK_RECORDS;
+    }
+
+    private void runWriter() {
+        List<ForceLocation> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                ForceLocation first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    write(batch);
+                    processed += batch.size() + uncommitted;
+                    uncommitted = 0;
+                    batch.clear();
+                }
+                if (System.currentTimeMillis() - activeOpenedAt >= TimeUnit.MINUTES.toMillis(segmentMinutes)) {
+                    roll();
+                    processed += uncommitted;
+                    uncommitted = 0;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | UncheckedIOException e) {
+                // רשומות שכבר נוספו ל-segment נכנסות ב-commit הבא; אבדו רק אלה שלא הגיעו אליו
+                int lost = batch.size() - appended;
+                log.error("❌ History write failed, {} locations lost: {}", lost, e.getMessage());
+                metrics.historyDropped(lost);
+                processed += lost;
+                uncommitted += appended;
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ForceLocation> batch) throws IOException {
+        long start = System.nanoTime();
+        appended = 0;
+        for (ForceLocation location : batch) {
+            if (active.isFull()) {
+                roll();
+            }
+            if (location instanceof ControlRecord control) {
+                active.append(control.getId() != null ? dictionary.indexOf(control.getId()) : LogSegment.ALL_FORCES,
+                        control.type, location.getTimestamp(), 0, 0);
+            } else {
+                active.append(dictionary.indexOf(location.getId()), LocationFrame.typeCode(location.getType()),
+                        location.getTimestamp(), location.getLatitude(), location.getLongitude());
+            }
+            appended++;
+        }
+        // ids חדשים נכתבים לפני ה-commit של הרשומות שמפנות אליהם
+        dictionary.flush(fsync);
+        active.commit(fsync);
+        metrics.historyCommit(batch.size(), System.nanoTime() - start);
+    }
+
+    // סגירת ה-segment הפעיל (commit אחרון) ופתיחת segment חדש
+    private void roll() throws IOException {
+        if (active != null) {
+            if (active.isEmpty()) {
+                activeOpenedAt = System.currentTimeMillis();
+                return;
+            }
+            dictionary.flush(fsync);
+            active.commit(fsync);
+        }
+        long id = System.currentTimeMillis();
+        if (!segments.isEmpty()) {
+            id = Math.max(id, segments.get(segments.size() - 1).getId() + 1);
+        }
+        active = LogSegment.create(root, id, segmentRecords);
+        activeOpenedAt = System.currentTimeMillis();
+        segments.add(active);
+    }
+
+    /**
+     * מיקום בלוג: segment ואינדקס הרשומה בתוכו
+     */
+    public static class Position {
+        private final long segmentId;
+        private final int index;
+
+        public Position(long segmentId, int index) {
+            this.segmentId = segmentId;
+            this.index = index;
+        }
+
+        public long getSegmentId() {
+            return segmentId;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return segmentId + ":" + index;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        boolean visit(LogSegment segment, int record);
+    }
+
+    /**
+     * רשומות הלוג בשחזור; forceId הוא null ברשומת בקרה של כל הכוחות
+     */
+    public interface RecordHandler {
+        void location(String forceId, String type, long timestamp, double latitude, double longitude);
+
+        void removed(String forceId);
+
+        void trajectoryReset(String forceId);
+    }
+
+    // רשומת בקרה בתור של ה-thread הכותב, לצד המיקומים (הזמן - שעון השרת, למידע בלבד)
+    private static final class ControlRecord extends ForceLocation {
+        private final int type;
+
+        ControlRecord(String forceId, int type) {
+            this.type = type;
+            setId(forceId);
+            setTimestamp(System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.forces.repository;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * קובץ segment של LocationLog: header של 32 בייט ואחריו רשומות בגודל קבוע, ממופה לזיכרון.
+ *
+ * header: int magic, int version, long count, long minTimestamp, long maxTimestamp
+ * רשומה:  int forceIndex, int type, long timestamp, double latitude, double longitude
+ *
+ * type שלילי הוא רשומת בקרה (מחיקת כוח או איפוס מסלול, forceIndex = ALL_FORCES לכל הכוחות):
+ * היא נשמרת לפי הסדר בשביל השחזור, אבל לא נכללת בטווח הזמנים, באינדקס ובשאילתות ההיסטוריה.
+ *
+ * כתיבה רק מה-thread הכותב של הלוג. רשומות נחשפות לקוראים רק אחרי commit (count volatile),
+ * כך שקורא לעולם לא רואה רשומה חלקית. count ב-header נכתב אחרי הרשומות, כך שאחרי קריסה
+ * נשארות רק רשומות שנכתבו במלואן.
+ */
+final class LogSegment {
+
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 32;
+
+    // רשומות בקרה
+    static final int TYPE_REMOVED = -1;
+    static final int TYPE_TRAJECTORY_RESET = -2;
+    static final int ALL_FORCES = -1;
+
+    private static final int MAGIC = 0x464c4f47; // "FLOG"
+    private static final int VERSION = 1;
+
+    private static final int COUNT_OFFSET = 8;
+    private static final int MIN_TIMESTAMP_OFFSET = 16;
+    private static final int MAX_TIMESTAMP_OFFSET = 24;
+
+    private final Path path;
+    private final long id;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    // מספר הרשומות שנכתבו (thread כותב) ומספר הרשומות הגלויות לקוראים
+    private int written;
+    private volatile int count;
+    private volatile long minTimestamp;
+    private volatile long maxTimestamp;
+
+    // אינדקס דליל לפי בלוקים - ל-segment חדש מתעדכן בכל commit, לישן נבנה בשאילתה הראשונה
+    private volatile SegmentIndex index;
+
+    private LogSegment(Path path, long id, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.path = path;
+        this.id = id;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * segment חדש וריק לכתיבה
+     */
+    static LogSegment create(Path directory, long id, int capacity) throws IOException {
+        Path path = directory.resolve(fileName(id));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        LogSegment segment = new LogSegment(path, id, channel, buffer, capacity);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        segment.minTimestamp = Long.MAX_VALUE;
+        segment.maxTimestamp = Long.MIN_VALUE;
+        segment.index = new SegmentIndex();
+        segment.writeHeader();
+        return segment;
+    }
+
+    /**
+     * segment קיים לקריאה בלבד (מהרצה קודמת)
+     */
+    static LogSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            channel.close();
+            throw new IOException("Segment too small: " + path);
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Not a location log segment: " + path);
+        }
+        int capacity = (int) ((size - HEADER_SIZE) / RECORD_SIZE);
+        LogSegment segment = new LogSegment(path, parseId(path), channel, buffer, capacity);
+        segment.written = (int) Math.min(buffer.getLong(COUNT_OFFSET), capacity);
+        segment.count = segment.written;
+        segment.minTimestamp = buffer.getLong(MIN_TIMESTAMP_OFFSET);
+        segment.maxTimestamp = buffer.getLong(MAX_TIMESTAMP_OFFSET);
+        return segment;
+    }
+
+    static boolean isSegmentFile(Path path) {
+        return path.getFileName().toString().endsWith(".seg");
+    }
+
+    boolean isEmpty() {
+        return written == 0;
+    }
+
+    boolean isFull() {
+        return written == capacity;
+    }
+
+    /**
+     * כתיבת רשומה - גלויה לקוראים רק אחרי commit
+     */
+    void append(int forceIndex, int type, long timestamp, double latitude, double longitude) {
+        int offset = HEADER_SIZE + written * RECORD_SIZE;
+        buffer.putInt(offset, forceIndex);
+        buffer.putInt(offset + 4, type);
+        buffer.putLong(offset + 8, timestamp);
+        buffer.putDouble(offset + 16, latitude);
+        buffer.putDouble(offset + 24, longitude);
+        written++;
+        if (type < 0) {
+            return;
+        }
+        if (timestamp < minTimestamp) {
+            minTimestamp = timestamp;
+        }
+        if (timestamp > maxTimestamp) {
+            maxTimestamp = timestamp;
+        }
+    }
+
+    /**
+     * group commit: כל הרשומות שנכתבו מאז ה-commit הקודם נחשפות יחד.
+     * עם fsync - הרשומות נכתבות לדיסק לפני ה-header שמונה אותן.
+     */
+    void commit(boolean fsync) {
+        int from = count;
+        if (written == from) {
+            return;
+        }
+        if (fsync) {
+            buffer.force(HEADER_SIZE + from * RECORD_SIZE, (written - from) * RECORD_SIZE);
+        }
+        writeHeader();
+        if (fsync) {
+            buffer.force(0, HEADER_SIZE);
+        }
+        for (int i = from; i < written; i++) {
+            if (isLocation(i)) {
+                index.add(i, forceIndex(i), timestamp(i));
+            }
+        }
+        count = written;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    boolean overlaps(long from, long to) {
+        return count > 0 && minTimestamp <= to && maxTimestamp >= from;
+    }
+
+    /**
+     * האינדקס הדליל של הרשומות הגלויות (ל-segment מהרצה קודמת - מעבר סדרתי אחד בפעם הראשונה)
+     */
+    SegmentIndex index() {
+        SegmentIndex current = index;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (index == null) {
+                SegmentIndex built = new SegmentIndex();
+                for (int i = 0; i < count; i++) {
+                    if (isLocation(i)) {
+                        built.add(i, forceIndex(i), timestamp(i));
+                    }
+                }
+                index = built;
+            }
+            return index;
+        }
+    }
+
+    // גישה לרשומה i (מתחת ל-getCount) - קריאות אבסולוטיות, בטוחות במקביל לכתיבה
+    int forceIndex(int i) {
+        return buffer.getInt(HEADER_SIZE + i * RECORD_SIZE);
+    }
+
+    int type(int i) {
+        return buffer.getInt(HEADER_SIZE + i * RECORD_SIZE + 4);
+    }
+
+    // מיקום ולא רשומת בקרה
+    boolean isLocation(int i) {
+        return type(i) >= 0;
+    }
+
+    long timestamp(int i) {
+        return buffer.getLong(HEADER_SIZE + i * RECORD_SIZE + 8);
+    }
+
+    double latitude(int i) {
+        return buffer.getDouble(HEADER_SIZE + i * RECORD_SIZE + 16);
+    }
+
+    double longitude(int i) {
+        return buffer.getDouble(HEADER_SIZE + i * RECORD_SIZE + 24);
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * מחיקת הקובץ; המיפוי נשאר תקף לקוראים שעוד מחזיקים את ה-segment עד שה-GC משחרר אותו
+     */
+    void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    private void writeHeader() {
+        buffer.putLong(COUNT_OFFSET, written);
+        buffer.putLong(MIN_TIMESTAMP_OFFSET, minTimestamp);
+        buffer.putLong(MAX_TIMESTAMP_OFFSET, maxTimestamp);
+    }
+
+    private static String fileName(long id) {
+        return String.format("%019d.seg", id);
+    }
+
+    private static long parseId(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - ".seg".length()));
+    }
+}
@@ -0,0 +1,105 @@
+package com.forces.repository;
+
+import java.util.Arrays;
+
+/**
+ * אינדקס דליל של segment: הרשומות מחולקות לבלוקים של BLOCK_RECORDS, ולכל בלוק נשמרים
+ * זמן מינימלי ומקסימלי; לכל כוח נשמרת רשימת הבלוקים שבהם הוא מופיע (בלוק פעם אחת).
+ * שאילתה לפי כוח או לפי זמן קוראת רק את הבלוקים הרלוונטיים במקום את כל ה-segment.
+ *
+ * מתעדכן מה-thread הכותב בכל commit ונקרא מכל thread - הגישה מסונכרנת (העדכון זול,
+ * והקוראים רק מעתיקים רשימה קצרה).
+ */
+final class SegmentIndex {
+
+    static final int BLOCK_RECORDS = 256;
+
+    private long[] blockMin = new long[16];
+    private long[] blockMax = new long[16];
+    private int blockCount;
+
+    // לפי אינדקס הכוח: הבלוקים שבהם הוא מופיע, בסדר עולה
+    private int[][] forceBlocks = new int[64][];
+    private int[] forceBlockCounts = new int[64];
+
+    synchronized void add(int record, int forceIndex, long timestamp) {
+        int block = record / BLOCK_RECORDS;
+        // בלוק שיש בו רק רשומות בקרה (בלי מיקומים) נשאר ריק - min > max, כך שאף טווח לא חופף לו
+        while (blockCount <= block) {
+            if (blockCount == blockMin.length) {
+                blockMin = Arrays.copyOf(blockMin, blockCount * 2);
+                blockMax = Arrays.copyOf(blockMax, blockCount * 2);
+            }
+            blockMin[blockCount] = Long.MAX_VALUE;
+            blockMax[blockCount] = Long.MIN_VALUE;
+            blockCount++;
+        }
+        blockMin[block] = Math.min(blockMin[block], timestamp);
+        blockMax[block] = Math.max(blockMax[block], timestamp);
+
+        if (forceIndex >= forceBlocks.length) {
+            int length = Math.max(forceIndex + 1, forceBlocks.length * 2);
+            forceBlocks = Arrays.copyOf(forceBlocks, length);
+            forceBlockCounts = Arrays.copyOf(forceBlockCounts, length);
+        }
+        int[] blocks = forceBlocks[forceIndex];
+        int count = forceBlockCounts[forceIndex];
+        if (blocks == null) {
+            blocks = new int[4];
+            forceBlocks[forceIndex] = blocks;
+        } else if (blocks[count - 1] == block) {
+            return;
+        } else if (count == blocks.length) {
+            blocks = Arrays.copyOf(blocks, count * 2);
+            forceBlocks[forceIndex] = blocks;
+        }
+        blocks[count] = block;
+        forceBlockCounts[forceIndex] = count + 1;
+    }
+
+    synchronized int blockCount() {
+        return blockCount;
+    }
+
+    synchronized long blockMin(int block) {
+        return blockMin[block];
+    }
+
+    synchronized long blockMax(int block) {
+        return blockMax[block];
+    }
+
+    /**
+     * הבלוקים של הכוח שחופפים לטווח [from, to], בסדר עולה
+     */
+    synchronized int[] blocksOf(int forceIndex, long from, long to) {
+        if (forceIndex >= forceBlocks.length || forceBlocks[forceIndex] == null) {
+            return new int[0];
+        }
+        int[] blocks = forceBlocks[forceIndex];
+        int count = forceBlockCounts[forceIndex];
+        int[] result = new int[count];
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            int block = blocks[i];
+            if (blockMin[block] <= to && blockMax[block] >= from) {
+                result[matched++] = block;
+            }
+        }
+        return Arrays.copyOf(result, matched);
+    }
+
+    /**
+     * אינדקסי הכוחות שמופיעים ב-segment
+     */
+    synchronized int[] forceIndexes() {
+        int[] result = new int[forceBlocks.length];
+        int count = 0;
+        for (int f = 0; f < forceBlocks.length; f++) {
+            if (forceBlocks[f] != null) {
+                result[count++] = f;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
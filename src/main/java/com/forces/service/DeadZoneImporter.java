@@ -0,0 +1,438 @@
+package com.forces.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forces.algorithm.DeadZoneIndex;
+import com.forces.model.DeadZone;
+import com.forces.model.DeadZoneImportResult;
+import com.forces.model.VerticesConverter;
+import com.forces.repository.DeadZoneCache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * ייבוא המוני של Dead Zones: הקלט נקרא כ-stream (JSON array, CSV או GeoJSON) ונכתב ל-DB
+ * ב-JDBC batch upsert, בלי JPA ובלי להחזיק את כל הקלט בזיכרון.
+ *
+ * הפענוח רץ ב-thread של הבקשה והכתיבה ב-thread כותב נפרד - batch אחד נכתב בזמן שהבא
+ * מתפענח. בסוף (גם אחרי כישלון) ה-cache נטען מחדש פעם אחת מה-DB.
+ * הייבוא לא אטומי: batches שנכתבו לפני שגיאה נשארים, והתוצאה מחזירה אותם יחד עם השגיאה.
+ */
+@Service
+public class DeadZoneImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadZoneImporter.class);
+
+    private static final String COLUMNS = "id, latitude, longitude, radius, shape, vertices, name, description, timestamp";
+    private static final String VALUES = "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // upsert של PostgreSQL - אותה החלפה לפי id כמו ב-/add
+    private static final String UPSERT = "INSERT INTO deadzones (" + COLUMNS + ") " + VALUES
+            + " ON CONFLICT (id) DO UPDATE SET latitude = EXCLUDED.latitude, longitude = EXCLUDED.longitude,"
+            + " radius = EXCLUDED.radius, shape = EXCLUDED.shape, vertices = EXCLUDED.vertices,"
+            + " name = EXCLUDED.name, description = EXCLUDED.description, timestamp = EXCLUDED.timestamp";
+
+    private static final VerticesConverter VERTICES = new VerticesConverter();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // כל batch בטרנזקציה משלו - batch שנכשל לא משאיר חלק מהשורות שלו
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DeadZoneCache cache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // מספר שורות בכל batch
+    @Value("${tracking.deadzones.import-batch-size:1000}")
+    private int batchSize;
+
+    private ThreadPoolExecutor writer;
+
+    @PostConstruct
+    public void init() {
+        // כל ייבוא מחזיק לכל היותר batch אחד בתור, כך שהתור חסום במספר הייבואים במקביל
+        writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                task -> new Thread(task, "deadzone-import"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        writer.shutdown();
+    }
+
+    /**
+     * [{DeadZone}, ...] - אותו מבנה כמו ב-/api/deadzones/add
+     */
+    public DeadZoneImportResult importJson(InputStream in) {
+        return run(batch -> {
+            try (JsonParser parser = objectMapper.createParser(in)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Expected a JSON array of deadzones");
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    batch.add(parser.readValueAs(DeadZone.class));
+                }
+            }
+        });
+    }
+
+    /**
+     * FeatureCollection: Point -> עיגול, Polygon -> פוליגון (הטבעת החיצונית), LineString -> מסדרון.
+     * radius (ברדיוס / חצי רוחב המסדרון), name, description ב-properties; id מה-feature או מ-properties.id
+     */
+    public DeadZoneImportResult importGeoJson(InputStream in) {
+        return run(batch -> {
+            try (JsonParser parser = objectMapper.createParser(in)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected a GeoJSON FeatureCollection");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if (!"features".equals(field) || value != JsonToken.START_ARRAY) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    // כל feature נקרא בנפרד - הזיכרון חסום בגודל feature אחד
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        batch.add(fromFeature(parser.readValueAsTree()));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * שורת כותרת עם שמות העמודות (id, latitude, longitude, radius, shape, vertices, name, description)
+     * בכל סדר; vertices - lat lng lat lng ... מופרדים ברווחים. שדות עם פסיק או מרכאות - בין מרכאות כפולות
+     */
+    public DeadZoneImportResult importCsv(InputStream in) {
+        return run(batch -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String header = reader.readLine();
+            if (header == null) {
+                return;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = splitCsv(header.replace("\uFEFF", ""));
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(), i);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> fields = splitCsv(line);
+                DeadZone zone = new DeadZone();
+                zone.setId(field(fields, columns, "id"));
+                zone.setLatitude(number(fields, columns, "latitude"));
+                zone.setLongitude(number(fields, columns, "longitude"));
+                zone.setRadius(number(fields, columns, "radius"));
+                String shape = field(fields, columns, "shape");
+                if (shape != null) {
+                    zone.setShape(shape.trim().toLowerCase());
+                }
+                zone.setVertices(vertices(field(fields, columns, "vertices")));
+                zone.setName(field(fields, columns, "name"));
+                zone.setDescription(field(fields, columns, "description"));
+                batch.add(zone);
+            }
+        });
+    }
+
+    /**
+     * קלט לא תקין או כתיבה שנכשלה עוצרים את הייבוא; מה שכבר נכתב נשאר ב-DB וב-cache,
+     * והתוצאה מחזירה את מספר השורות שנכתבו יחד עם השגיאה
+     */
+    private DeadZoneImportResult run(Parser parser) {
+        long start = System.nanoTime();
+        Batch batch = new Batch();
+        String error = null;
+        boolean invalidInput = false;
+        try {
+            parser.parse(batch);
+            batch.finish();
+        } catch (IOException e) {
+            error = "Invalid input: " + e.getMessage();
+            invalidInput = true;
+        } catch (DataAccessException e) {
+            log.error("❌ Deadzone import write failed: {}", e.getMostSpecificCause().getMessage());
+            error = "Database write failed";
+        } finally {
+            batch.drain();
+        }
+        try {
+            cache.reload();
+        } catch (DataAccessException e) {
+            log.error("❌ Deadzone cache reload after import failed: {}", e.getMostSpecificCause().getMessage());
+            if (error == null) {
+                error = "Cache reload failed";
+            }
+        }
+
+        DeadZoneImportResult result = new DeadZoneImportResult(batch.imported, batch.skipped,
+                (System.nanoTime() - start) / 1_000_000, error, invalidInput);
+        if (error == null) {
+            log.info("📦 Imported {} deadzones ({} skipped) in {} ms", result.getImported(), result.getSkipped(),
+                    result.getMillis());
+        } else {
+            log.warn("⚠️ Deadzone import stopped after {} deadzones ({} skipped): {}", result.getImported(),
+                    result.getSkipped(), error);
+        }
+        return result;
+    }
+
+    private DeadZone fromFeature(JsonNode feature) {
+        JsonNode properties = feature.path("properties");
+        JsonNode geometry = feature.path("geometry");
+        DeadZone zone = new DeadZone();
+        JsonNode id = feature.hasNonNull("id") ? feature.get("id") : properties.get("id");
+        zone.setId(id != null && !id.isNull() ? id.asText() : null);
+        zone.setLatitude(Double.NaN);
+        zone.setLongitude(Double.NaN);
+        JsonNode coordinates = geometry.path("coordinates");
+        switch (geometry.path("type").asText()) {
+            case "Point":
+                // GeoJSON: [longitude, latitude]
+                zone.setLongitude(coordinates.path(0).asDouble(Double.NaN));
+                zone.setLatitude(coordinates.path(1).asDouble(Double.NaN));
+                break;
+            case "Polygon":
+                zone.setShape(DeadZone.SHAPE_POLYGON);
+                setPath(zone, coordinates.path(0));
+                break;
+            case "LineString":
+                zone.setShape(DeadZone.SHAPE_CORRIDOR);
+                setPath(zone, coordinates);
+                break;
+            default:
+                // גיאומטריה לא נתמכת - תידחה בבדיקה
+                break;
+        }
+        zone.setRadius(properties.path("radius").asDouble(Double.NaN));
+        zone.setName(properties.hasNonNull("name") ? properties.get("name").asText() : null);
+        zone.setDescription(properties.hasNonNull("description") ? properties.get("description").asText() : null);
+        return zone;
+    }
+
+    // [[lng, lat], ...] -> vertices [lat, lng, ...]
+    private static void setPath(DeadZone zone, JsonNode positions) {
+        double[] vertices = new double[positions.size() * 2];
+        for (int i = 0; i < positions.size(); i++) {
+            vertices[i * 2] = positions.path(i).path(1).asDouble(Double.NaN);
+            vertices[i * 2 + 1] = positions.path(i).path(0).asDouble(Double.NaN);
+        }
+        zone.setVertices(vertices);
+    }
+
+    // שדות שלא נדרשים לצורה: רדיוס חסר -> 0 (פוליגון), נקודת תווית חסרה -> הקודקוד הראשון
+    private static void fillDefaults(DeadZone zone) {
+        if (Double.isNaN(zone.getRadius())) {
+            zone.setRadius(0);
+        }
+        double[] vertices = zone.getVertices();
+        if (!DeadZone.SHAPE_CIRCLE.equals(zone.getShape()) && vertices != null && vertices.length >= 2
+                && (Double.isNaN(zone.getLatitude()) || Double.isNaN(zone.getLongitude()))) {
+            zone.setLatitude(vertices[0]);
+            zone.setLongitude(vertices[1]);
+        }
+    }
+
+    private static boolean isValid(DeadZone zone) {
+        return zone.getId() != null && !zone.getId().isBlank() && DeadZoneIndex.isValid(zone);
+    }
+
+    private static double[] vertices(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String[] parts = value.trim().split("\\s+");
+        double[] vertices = new double[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                vertices[i] = Double.parseDouble(parts[i]);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return vertices;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static double number(List<String> fields, Map<String, Integer> columns, String name) {
+        String value = field(fields, columns, name);
+        try {
+            return value != null ? Double.parseDouble(value.trim()) : Double.NaN;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // פיצול שורת CSV: פסיקים, שדות בין מרכאות ו-"" כמרכאה בתוך שדה
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    @FunctionalInterface
+    private interface Parser {
+        void parse(Batch batch) throws IOException;
+    }
+
+    /**
+     * מצטבר שורות ושולח batch מלא ל-thread הכותב. לכל היותר batch אחד בכתיבה - לפני שליחת
+     * הבא ממתינים לקודם, כך שהסדר נשמר (שורה מאוחרת עם אותו id גוברת) והקלט לא מצטבר בזיכרון.
+     */
+    private final class Batch {
+        private List<DeadZone> rows = new ArrayList<>();
+        private Future<?> pending;
+        private int pendingRows;
+        // רק שורות מ-batches שהכתיבה שלהם הסתיימה בהצלחה
+        private int imported;
+        private int skipped;
+
+        void add(DeadZone zone) throws IOException {
+            fillDefaults(zone);
+            if (!isValid(zone)) {
+                skipped++;
+                return;
+            }
+            rows.add(zone);
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void finish() throws IOException {
+            flush();
+            await();
+        }
+
+        // אחרי שגיאה: ממתינים ל-batch שבכתיבה, כדי שה-reload והספירה יכללו אותו
+        void drain() {
+            if (pending != null) {
+                try {
+                    pending.get();
+                    imported += pendingRows;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ignored) {
+                    // השגיאה המקורית היא זו שמדווחת
+                } finally {
+                    pending = null;
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            await();
+            if (rows.isEmpty()) {
+                return;
+            }
+            List<DeadZone> writing = rows;
+            rows = new ArrayList<>(batchSize);
+            pending = writer.submit(() -> write(writing));
+            pendingRows = writing.size();
+        }
+
+        private void await() throws IOException {
+            if (pending == null) {
+                return;
+            }
+            try {
+                pending.get();
+                imported += pendingRows;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IOException(e.getCause());
+            } finally {
+                pending = null;
+            }
+        }
+    }
+
+    private void write(List<DeadZone> zones) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(UPSERT, zones, zones.size(), (statement, zone) -> {
+                    statement.setString(1, zone.getId());
+                    statement.setDouble(2, zone.getLatitude());
+                    statement.setDouble(3, zone.getLongitude());
+                    statement.setDouble(4, zone.getRadius());
+                    statement.setString(5, zone.getShape());
+                    statement.setString(6, VERTICES.convertToDatabaseColumn(zone.getVertices()));
+                    statement.setString(7, zone.getName());
+                    statement.setString(8, zone.getDescription());
+                    statement.setLong(9, zone.getTimestamp());
+                }));
+    }
+}
@@ -0,0 +1,97 @@
+package com.forces.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.forces.model.DeadZone;
+import com.forces.model.DeadZoneEvent;
+import com.forces.model.ForceLocation;
+import com.forces.repository.DeadZoneCache;
+
+/**
+ * מעקב אחרי חברות של כל כוח ב-Dead Zones לפי המיקומים הנכנסים.
+ * לכל מיקום מתבצעת בדיקת הכלה מול האינדקס, ומוחזרים רק המעברים (כניסה/יציאה).
+ * הבדיקה פונה ישירות לאינדקס (לא דרך DeadZoneService) - בלי מונה ה-hits של /check
+ * ובלי רשימה חדשה לכל מיקום.
+ */
+@Service
+public class DeadZoneMonitor {
+
+    @Autowired
+    private DeadZoneCache cache;
+
+    // האזורים שכל כוח נמצא בהם כרגע (id -> שם)
+    private final Map<String, Map<String, String>> memberships = new ConcurrentHashMap<>();
+
+    // אוסף האזורים של הבדיקה הנוכחית - אחד לכל thread של ה-pipeline, נמחק בכל בדיקה
+    private final ThreadLocal<ZoneCollector> collectors = ThreadLocal.withInitial(ZoneCollector::new);
+
+    /**
+     * עדכון החברות של הכוח לפי מיקומו והחזרת אירועי הכניסה/יציאה
+     */
+    public List<DeadZoneEvent> checkTransitions(ForceLocation location) {
+        ZoneCollector containing = collectors.get();
+        containing.zones.clear();
+        cache.getIndex().forEachContaining(location.getLatitude(), location.getLongitude(), containing);
+        Map<String, String> previous = memberships.getOrDefault(location.getId(), Collections.emptyMap());
+
+        // המקרה הנפוץ - מחוץ לכל האזורים, גם קודם וגם עכשיו
+        if (containing.zones.isEmpty() && previous.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (containing.zones.keySet().equals(previous.keySet())) {
+            return Collections.emptyList();
+        }
+        Map<String, String> current = new HashMap<>(containing.zones);
+
+        List<DeadZoneEvent> events = new ArrayList<>();
+        for (Map.Entry<String, String> zone : current.entrySet()) {
+            if (!previous.containsKey(zone.getKey())) {
+                events.add(event(DeadZoneEvent.ENTER, location, zone.getKey(), zone.getValue()));
+            }
+        }
+        for (Map.Entry<String, String> zone : previous.entrySet()) {
+            if (!current.containsKey(zone.getKey())) {
+                events.add(event(DeadZoneEvent.EXIT, location, zone.getKey(), zone.getValue()));
+            }
+        }
+
+        if (current.isEmpty()) {
+            memberships.remove(location.getId());
+        } else {
+            memberships.put(location.getId(), current);
+        }
+        return events;
+    }
+
+    public void removeForce(String forceId) {
+        memberships.remove(forceId);
+    }
+
+    public void clearAll() {
+        memberships.clear();
+    }
+
+    private DeadZoneEvent event(String type, ForceLocation location, String zoneId, String zoneName) {
+        return new DeadZoneEvent(type, location.getId(), zoneId, zoneName,
+                location.getLatitude(), location.getLongitude(), location.getTimestamp());
+    }
+
+    private static final class ZoneCollector implements Consumer<DeadZone> {
+
+        final Map<String, String> zones = new HashMap<>();
+
+        @Override
+        public void accept(DeadZone zone) {
+            zones.put(zone.getId(), zone.getName());
+        }
+    }
+}
@@ -4,35 +4,76 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.forces.model.ForceLocation;
+import com.forces.model.ForceState;
+import com.forces.repository.ForceStateStore;
 
 @Service
 public class ForceService {
 
-    private final Map<String, ForceLocation> forces = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(ForceService.class);
 
-    public ForceLocation updateLocation(ForceLocation location) {
-        forces.put(location.getId(), location);
-        System.out.println("Updated force: " + location.getName() + " at [" + location.getLatitude() + ", " + location.getLongitude() + "]");
-        return location;
+    @Autowired
+    private ForceStateStore states;
+
+    /**
+     * עדכון המיקום האחרון של הכוח; מחזיר את רשומת המצב שלו להמשך הטיפול באותו עדכון
+     */
+    public ForceState updateLocation(ForceLocation location) {
+        ForceState state = states.getOrCreate(location.getId());
+        state.setLocation(location);
+        if (log.isTraceEnabled()) {
+            log.trace("Updated force: {} at [{}, {}]", location.getName(), location.getLatitude(), location.getLongitude());
+        }
+        return state;
     }
 
-    public List<ForceLocation> getAllForces() {
-        return new ArrayList<>(forces.values());
+    /**
+     * עדכון קבוצת מיקומים במעבר אחד; מחזיר את רשומת המצב של כל מיקום, באותו סדר
+     */
+    public ForceState[] updateLocations(List<ForceLocation> locations) {
+        ForceState[] updated = new ForceState[locations.size()];
+        for (int i = 0; i < updated.length; i++) {
+            ForceLocation location = locations.get(i);
+            updated[i] = states.getOrCreate(location.getId());
+            updated[i].setLocation(location);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Updated {} force locations (batch)", locations.size());
+        }
+        return updated;
+    }
+
+    /**
+     * המיקומים הנוכחיים ישירות מהמפה החיה, ללא העתקה - לכתיבה רשומה אחר רשומה
+     */
+    public Stream<ForceLocation> streamForces() {
+        return states.getAll().stream()
+                .map(ForceState::getLocation)
+                .filter(Objects::nonNull);
     }
 
     public ForceLocation getForce(String id) {
-        return forces.get(id);
+        ForceState state = states.get(id);
+        return state != null ? state.getLocation() : null;
     }
 
+    /**
+     * הסרת הכוח - כולל המסלול ומצב הפילטר שלו
+     */
     public boolean removeForce(String id) {
-        ForceLocation removed = forces.remove(id);
+        ForceState removed = states.remove(id);
         if (removed != null) {
-            System.out.println("Removed force: " + removed.getName());
+            ForceLocation location = removed.getLocation();
+            log.info("Removed force: {}", location != null ? location.getName() : id);
             return true;
         }
         return false;
@@ -40,8 +81,9 @@ public class ForceService {
 
     public List<ForceLocation> getForcesByType(String type) {
         List<ForceLocation> result = new ArrayList<>();
-        for (ForceLocation force : forces.values()) {
-            if (force.getType().equals(type)) {
+        for (ForceState state : states.getAll()) {
+            ForceLocation force = state.getLocation();
+            if (force != null && force.getType().equals(type)) {
                 result.add(force);
             }
         }
@@ -50,14 +92,17 @@ public class ForceService {
 
     public Map<String, Integer> getForceCountByType() {
         Map<String, Integer> counts = new HashMap<>();
-        for (ForceLocation force : forces.values()) {
-            counts.merge(force.getType(), 1, Integer::sum);
+        for (ForceState state : states.getAll()) {
+            ForceLocation force = state.getLocation();
+            if (force != null) {
+                counts.merge(force.getType(), 1, Integer::sum);
+            }
         }
         return counts;
     }
 
     public void clearAllForces() {
-        forces.clear();
-        System.out.println("Cleared all forces");
+        states.clear();
+        log.info("Cleared all forces");
     }
 }
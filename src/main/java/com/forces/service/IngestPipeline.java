@@ -0,0 +1,330 @@
+package com.forces.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.forces.metrics.TrackingMetrics;
+import com.forces.model.DeadZoneEvent;
+import com.forces.model.ForceLocation;
+import com.forces.model.ForceState;
+import com.forces.repository.LocationLog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * צינור קליטה מחולק לפי force id: לכל shard יש thread כותב יחיד ותור חסום.
+ * כל העדכונים של כוח מסוים (מיקום, מסלול, Kalman, Dead Zones) רצים תמיד באותו thread
+ * ובסדר ההגעה, כך שהמצב של כוח לעולם לא נכתב במקביל - בלי נעילות לכל כוח.
+ * תור מלא דוחה את העדכון (RejectedExecutionException) במקום לחסום את ה-thread של הבקשה.
+ */
+@Service
+public class IngestPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestPipeline.class);
+
+    private static final long BARRIER_TIMEOUT_SECONDS = 30;
+
+    @Autowired
+    private ForceService forceService;
+
+    @Autowired
+    private TrajectoryService trajectoryService;
+
+    @Autowired
+    private DeadZoneMonitor deadZoneMonitor;
+
+    @Autowired
+    private LocationBroadcaster locationBroadcaster;
+
+    @Autowired
+    private PredictionBroadcaster predictionBroadcaster;
+
+    @Autowired
+    private LocationLog locationLog;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private TrackingMetrics metrics;
+
+    // מספר ה-shards (0 = מספר המעבדים)
+    @Value("${tracking.ingest.shards:0}")
+    private int shardCount;
+
+    // גודל התור של כל shard
+    @Value("${tracking.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor[] shards;
+
+    @PostConstruct
+    public void start() {
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        shards = new ThreadPoolExecutor[count];
+        for (int i = 0; i < count; i++) {
+            String name = "ingest-" + i;
+            shards[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    task -> new Thread(task, name),
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+        metrics.ingestQueueDepth(this::getQueueDepth);
+        log.info("🧵 Ingest pipeline started with {} shards (queue capacity {})", count, queueCapacity);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+        for (ThreadPoolExecutor shard : shards) {
+            shard.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * קליטת מיקום בודד - מסתיים כשהעדכון הוחל ב-shard של הכוח
+     */
+    public CompletableFuture<ForceLocation> submit(ForceLocation location) {
+        return supply(shardFor(location.getId()), () -> apply(location));
+    }
+
+    /**
+     * קליטת קבוצת מיקומים: חלוקה לפי shard, וכל חלק מוחל כמנה אחת ב-thread של ה-shard שלו.
+     * חלק שה-shard שלו דחה (תור מלא) לא מוחל בכלל - המיקומים שלו חוזרים ב-rejected
+     */
+    public BatchSubmission submitAll(List<ForceLocation> locations) {
+        int[] shardOf = new int[locations.size()];
+        List<List<ForceLocation>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            parts.add(new ArrayList<>());
+        }
+        for (int i = 0; i < shardOf.length; i++) {
+            ForceLocation location = locations.get(i);
+            shardOf[i] = shardIndex(location.getId());
+            parts.get(shardOf[i]).add(location);
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        boolean[] rejectedShards = new boolean[shards.length];
+        int rejectedCount = 0;
+        for (int i = 0; i < shards.length; i++) {
+            List<ForceLocation> part = parts.get(i);
+            if (part.isEmpty()) {
+                continue;
+            }
+            try {
+                futures.add(CompletableFuture.runAsync(() -> applyAll(part), shards[i]));
+            } catch (RejectedExecutionException e) {
+                metrics.ingestRejected();
+                rejectedShards[i] = true;
+                rejectedCount += part.size();
+            }
+        }
+
+        int[] rejected = new int[rejectedCount];
+        for (int i = 0, k = 0; k < rejectedCount; i++) {
+            if (rejectedShards[shardOf[i]]) {
+                rejected[k++] = i;
+            }
+        }
+        return new BatchSubmission(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])), rejected);
+    }
+
+    /**
+     * מחיקת כוח ב-shard שלו, אחרי כל העדכונים שכבר בתור
+     */
+    public CompletableFuture<Boolean> remove(String forceId) {
+        return supply(shardFor(forceId), () -> {
+            // מוחק את כל רשומת המצב - מיקום, מסלול ו-slot בפילטר
+            boolean removed = forceService.removeForce(forceId);
+            if (removed) {
+                // גם בלוג, אחרי המיקומים של הכוח - כדי שהשחזור לא יחזיר אותו
+                locationLog.appendRemoved(forceId);
+                deadZoneMonitor.removeForce(forceId);
+                locationBroadcaster.discard(forceId);
+                predictionBroadcaster.discard(forceId);
+            }
+            return removed;
+        });
+    }
+
+    /**
+     * איפוס ההיסטוריה והפילטר של כוח, ב-shard שלו
+     */
+    public CompletableFuture<Void> resetTrajectory(String forceId) {
+        return supply(shardFor(forceId), () -> {
+            trajectoryService.removeTrajectory(forceId);
+            locationLog.appendTrajectoryReset(forceId);
+            return null;
+        });
+    }
+
+    /**
+     * ניקוי כל הכוחות
+     */
+    public CompletableFuture<Void> clearAll() {
+        return onAllShards(() -> {
+            forceService.clearAllForces();
+            locationLog.appendRemoved(null);
+            deadZoneMonitor.clearAll();
+            locationBroadcaster.discardAll();
+            predictionBroadcaster.discardAll();
+        });
+    }
+
+    /**
+     * איפוס ההיסטוריה והפילטר של כל הכוחות
+     */
+    public CompletableFuture<Void> resetAllTrajectories() {
+        return onAllShards(() -> {
+            trajectoryService.clearAll();
+            locationLog.appendTrajectoryReset(null);
+        });
+    }
+
+    /**
+     * פעולה על המצב של כל הכוחות: כל ה-shards נעצרים על מחסום, הפעולה רצה כשאף כותב
+     * לא פעיל, ורק אז הם ממשיכים לעדכונים שהגיעו אחריה.
+     * ההגשה מסונכרנת: כך משימות המחסום של שתי פעולות במקביל נכנסות לכל ה-shards באותו סדר,
+     * ואף shard לא ממתין על מחסום אחר מהשאר
+     */
+    public synchronized CompletableFuture<Void> onAllShards(Runnable action) {
+        CyclicBarrier barrier = new CyclicBarrier(shards.length, action);
+        // משימות המחסום לא נכנסות להמתנה עד שכולן הוגשו; אם shard דחה - כולן חוזרות מיד
+        CountDownLatch submitted = new CountDownLatch(1);
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(shards.length);
+        for (ThreadPoolExecutor shard : shards) {
+            CompletableFuture<Void> future = supply(shard, () -> {
+                try {
+                    submitted.await();
+                    if (cancelled.get()) {
+                        return null;
+                    }
+                    barrier.await(BARRIER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for ingest shards", e);
+                } catch (BrokenBarrierException | TimeoutException e) {
+                    throw new IllegalStateException("Ingest shards did not reach the barrier", e);
+                }
+                return null;
+            });
+            if (future.isCompletedExceptionally()) {
+                // shard שדחה את המשימה לא יגיע למחסום - המשימות שכבר בתורים יוצאות בלי להמתין
+                cancelled.set(true);
+                submitted.countDown();
+                return future;
+            }
+            futures.add(future);
+        }
+        submitted.countDown();
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (ThreadPoolExecutor shard : shards) {
+            depth += shard.getQueue().size();
+        }
+        return depth;
+    }
+
+    private ForceLocation apply(ForceLocation location) {
+        // חיפוש יחיד במפה - אותה רשומה משמשת גם למסלול ול-Kalman
+        ForceState state = forceService.updateLocation(location);
+        trajectoryService.addLocation(state, location.getLatitude(), location.getLongitude(), location.getTimestamp());
+        locationLog.append(location);
+
+        // נשלח ב-tick הבא של ה-broadcaster, יחד עם שאר העדכונים
+        locationBroadcaster.publish(location);
+        predictionBroadcaster.markDirty(location.getId());
+        sendDeadZoneEvents(location);
+        return location;
+    }
+
+    private void applyAll(List<ForceLocation> locations) {
+        ForceState[] states = forceService.updateLocations(locations);
+        trajectoryService.addLocations(locations, states);
+        locationLog.appendAll(locations);
+        for (ForceLocation location : locations) {
+            locationBroadcaster.publish(location);
+            predictionBroadcaster.markDirty(location.getId());
+            sendDeadZoneEvents(location);
+        }
+    }
+
+    // שליחת אירועי כניסה/יציאה מ-Dead Zones - רק כשיש שינוי
+    private void sendDeadZoneEvents(ForceLocation location) {
+        for (DeadZoneEvent event : deadZoneMonitor.checkTransitions(location)) {
+            messagingTemplate.convertAndSend("/topic/deadzone-events", event);
+        }
+    }
+
+    private <T> CompletableFuture<T> supply(ThreadPoolExecutor shard, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, shard);
+        } catch (RejectedExecutionException e) {
+            metrics.ingestRejected();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private ThreadPoolExecutor shardFor(String forceId) {
+        return shards[shardIndex(forceId)];
+    }
+
+    private int shardIndex(String forceId) {
+        int hash = forceId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    /**
+     * תוצאת הגשה של מנה: applied מסתיים כשכל החלקים שהתקבלו הוחלו; rejected - האינדקסים
+     * (ברשימה שהוגשה) של המיקומים שנדחו ולא יוחלו
+     */
+    public static final class BatchSubmission {
+
+        private final CompletableFuture<Void> applied;
+        private final int[] rejected;
+
+        BatchSubmission(CompletableFuture<Void> applied, int[] rejected) {
+            this.applied = applied;
+            this.rejected = rejected;
+        }
+
+        public CompletableFuture<Void> getApplied() {
+            return applied;
+        }
+
+        public int[] getRejected() {
+            return rejected;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.forces.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forces.model.ForceLocation;
+import com.forces.model.LocationFrame;
+
+/**
+ * שליחה מרוכזת של מיקומים ל-/topic/locations: שומר רק את המיקום האחרון של כל כוח,
+ * ובכל tick שולח frame אחד (מערך JSON) עם הכוחות שהשתנו מאז ה-tick הקודם.
+ * ה-frame מסודר ל-JSON פעם אחת ומשותף לכל המנויים, ובמקביל נשלח בקידוד בינארי
+ * ל-/topic/locations.bin - רק כשיש לו מנויים.
+ */
+@Service
+public class LocationBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationBroadcaster.class);
+
+    public static final String LOCATIONS_TOPIC = "/topic/locations";
+
+    // אותו frame בקידוד בינארי (LocationFrame) - רק בחיבור /ws-native
+    public static final String BINARY_LOCATIONS_TOPIC = "/topic/locations.bin";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // המיקום האחרון של כל כוח שעוד לא נשלח
+    private final Map<String, ForceLocation> pending = new ConcurrentHashMap<>();
+
+    // המנויים ל-BINARY_LOCATIONS_TOPIC: session id -> subscription ids
+    private final Map<String, Set<String>> binarySubscriptions = new ConcurrentHashMap<>();
+
+    private final AntPathMatcher destinationMatcher = new AntPathMatcher();
+
+    /**
+     * תזמון מיקום לשליחה ב-tick הבא (מחליף מיקום קודם של אותו כוח)
+     */
+    public void publish(ForceLocation location) {
+        pending.put(location.getId(), location);
+    }
+
+    /**
+     * ביטול מיקום ממתין - למשל כשהכוח נמחק
+     */
+    public void discard(String forceId) {
+        pending.remove(forceId);
+    }
+
+    public void discardAll() {
+        pending.clear();
+    }
+
+    @Scheduled(fixedRateString = "${tracking.broadcast.interval-ms:100}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<ForceLocation> frame = new ArrayList<>(pending.size());
+        for (Map.Entry<String, ForceLocation> entry : pending.entrySet()) {
+            frame.add(entry.getValue());
+            // הסרה רק אם לא הגיע מיקום חדש יותר בינתיים - אחרת הוא יישלח ב-tick הבא
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+
+        try {
+            send(LOCATIONS_TOPIC, objectMapper.writeValueAsBytes(frame), MimeTypeUtils.APPLICATION_JSON);
+        } catch (JsonProcessingException e) {
+            log.error("❌ Failed to serialize location frame", e);
+        }
+        if (!binarySubscriptions.isEmpty()) {
+            send(BINARY_LOCATIONS_TOPIC, LocationFrame.encode(frame), MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        }
+    }
+
+    // היעד של מנוי יכול להיות גם תבנית (/topic/**), כמו ב-broker עצמו
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String destination = headers.getDestination();
+        if (destination != null && headers.getSessionId() != null && headers.getSubscriptionId() != null
+                && destinationMatcher.match(destination, BINARY_LOCATIONS_TOPIC)) {
+            binarySubscriptions.computeIfAbsent(headers.getSessionId(), id -> ConcurrentHashMap.newKeySet())
+                    .add(headers.getSubscriptionId());
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        if (headers.getSessionId() == null) {
+            return;
+        }
+        binarySubscriptions.computeIfPresent(headers.getSessionId(), (id, subscriptions) -> {
+            subscriptions.remove(headers.getSubscriptionId());
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        binarySubscriptions.remove(event.getSessionId());
+    }
+
+    // frame שכבר סודר - נשלח כמו שהוא לכל המנויים; octet-stream יוצא כ-frame בינארי של WebSocket
+    private void send(String topic, byte[] payload, MimeType contentType) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(contentType);
+        headers.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(payload, headers.getMessageHeaders());
+        messagingTemplate.send(topic, message);
+    }
+}
@@ -0,0 +1,101 @@
+package com.forces.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forces.model.BatchPredictionResult;
+
+/**
+ * דחיפת חיזויים ל-/topic/predictions במקום polling מהדפדפן: נתיב הקליטה מסמן כוחות
+ * שקיבלו מדידה, ובכל tick מחושב חיזוי אחד לכל כוח מסומן (חיזוי מרוכז) ונשלח
+ * frame אחד לכל המנויים. עלות החיזוי תלויה בכמות המדידות ולא בכמות הצופים.
+ */
+@Service
+public class PredictionBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(PredictionBroadcaster.class);
+
+    public static final String PREDICTIONS_TOPIC = "/topic/predictions";
+
+    @Autowired
+    private TrajectoryService trajectoryService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // טווח החיזוי שנדחף (הלקוח ממיר לטווח שבחר - החיזוי לינארי)
+    @Value("${tracking.prediction.push-seconds:60}")
+    private int pushSeconds;
+
+    // כוחות שקיבלו מדידה מאז ה-tick הקודם
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * סימון כוח לחישוב חיזוי ב-tick הבא
+     */
+    public void markDirty(String forceId) {
+        dirty.add(forceId);
+    }
+
+    public void discard(String forceId) {
+        dirty.remove(forceId);
+    }
+
+    public void discardAll() {
+        dirty.clear();
+    }
+
+    @Scheduled(fixedRateString = "${tracking.prediction.interval-ms:1000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        // סימון שמגיע אחרי ההסרה נשאר ל-tick הבא; החיזוי כאן כבר כולל את המדידה שקדמה לו
+        List<String> forceIds = new ArrayList<>(dirty.size());
+        for (Iterator<String> it = dirty.iterator(); it.hasNext();) {
+            forceIds.add(it.next());
+            it.remove();
+        }
+
+        BatchPredictionResult batch = trajectoryService.predictTrajectories(forceIds, pushSeconds);
+        if (batch.getPredictions().isEmpty()) {
+            return;
+        }
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(batch);
+        } catch (JsonProcessingException e) {
+            log.error("❌ Failed to serialize prediction frame", e);
+            return;
+        }
+
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(payload, headers.getMessageHeaders());
+        messagingTemplate.send(PREDICTIONS_TOPIC, message);
+    }
+}
@@ -0,0 +1,349 @@
+package com.forces.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.forces.algorithm.KalmanBank;
+import com.forces.model.ForceLocation;
+import com.forces.model.ForceState;
+import com.forces.model.ForceTrajectory;
+import com.forces.model.LocationFrame;
+import com.forces.repository.ForceStateStore;
+import com.forces.repository.LocationLog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * הפעלה חמה: snapshot בינארי תקופתי של כל הכוחות (מיקום אחרון, המסלול שבזיכרון ומצב
+ * הפילטר כולל קווריאנס), ובעלייה - טעינת ה-snapshot והשלמה מהלוג של מה שהגיע אחריו.
+ *
+ * ה-snapshot נלקח כשכל ה-shards עצורים (IngestPipeline.onAllShards), ולכן עקבי לכל כוח.
+ * באותו רגע הלוג מרוקן ונרשם המיקום בו: כל רשומה לפניו כבר במצב וכל רשומה אחריו עוד לא,
+ * ולכן בשחזור מוחלות כל הרשומות אחרי המיקום - באותו נתיב כמו בקליטה. מחיקות ואיפוסי
+ * מסלול נרשמים בלוג כרשומות בקרה ומוחלים באותו סדר, כך שכוח שנמחק לא חוזר.
+ */
+@Service
+public class SnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+
+    private static final int MAGIC = 0x46534e50; // "FSNP"
+    private static final int VERSION = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // כמה זמן הקליטה עצורה לכל היותר עד שהלוג מסיים לכתוב את מה שבתור
+    private static final long LOG_DRAIN_TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private ForceStateStore states;
+
+    @Autowired
+    private ForceService forceService;
+
+    @Autowired
+    private TrajectoryService trajectoryService;
+
+    @Autowired
+    private IngestPipeline ingestPipeline;
+
+    @Autowired
+    private LocationLog locationLog;
+
+    @Value("${tracking.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tracking.snapshot.file:data/state.snap}")
+    private String file;
+
+    @Value("${tracking.snapshot.interval-ms:300000}")
+    private long intervalMs;
+
+    // thread משלו: snapshot עוצר את הקליטה וכותב לדיסק, ולא יעכב את ה-ticks של ה-scheduler המשותף
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * טעינת ה-snapshot האחרון והשלמה מהלוג - לפני שהשרת מתחיל לקבל בקשות - ותזמון snapshot תקופתי.
+     * בלי snapshot שמיש (עלייה ראשונה, קובץ שנמחק או פגום) כל המצב נבנה מהלוג מתחילתו.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        restore();
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> new Thread(task, "state-snapshot"));
+        scheduler.scheduleWithFixedDelay(this::snapshot, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void restore() {
+        Path path = Paths.get(file);
+        if (!Files.exists(path)) {
+            replayAll();
+            return;
+        }
+        long start = System.nanoTime();
+        LocationLog.Position position;
+        int restored;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.warn("⚠️ Ignoring snapshot {} - unknown format", path);
+                replayAll();
+                return;
+            }
+            in.readLong(); // זמן יצירה
+            long segmentId = in.readLong();
+            int index = in.readInt();
+            position = segmentId >= 0 ? new LocationLog.Position(segmentId, index) : null;
+            restored = readForces(in);
+        } catch (IOException e) {
+            log.error("❌ Failed to restore snapshot {}: {}", path, e.getMessage());
+            states.clear();
+            replayAll();
+            return;
+        }
+        long loaded = System.nanoTime();
+
+        long replayed = 0;
+        if (position != null && locationLog.isEnabled()) {
+            replayed = locationLog.replay(position, new LogReplay());
+        }
+        log.info("♻️ Restored {} forces from snapshot in {} ms, replayed {} log records in {} ms",
+                restored, (loaded - start) / 1_000_000, replayed, (System.nanoTime() - loaded) / 1_000_000);
+    }
+
+    // בנייה מחדש של כל המצב מהלוג, בלי snapshot
+    private void replayAll() {
+        if (!locationLog.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long replayed = locationLog.replay(null, new LogReplay());
+        if (replayed > 0) {
+            log.info("♻️ No usable snapshot - rebuilt {} forces from {} log records in {} ms",
+                    states.size(), replayed, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * snapshot תקופתי
+     */
+    public void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            write();
+        } catch (Exception e) {
+            log.error("❌ Snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    // snapshot אחרון בכיבוי מסודר - העלייה הבאה לא תצטרך להשלים מהלוג.
+    // קודם ממתינים ל-snapshot תקופתי שכבר רץ, כדי ששניים לא יכתבו את הקובץ במקביל
+    @PreDestroy
+    public void snapshotOnShutdown() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        snapshot();
+    }
+
+    private void write() throws IOException {
+        long start = System.nanoTime();
+
+        // סידור לזיכרון כשה-shards עצורים; הכתיבה לדיסק אחרי שהם ממשיכים
+        AtomicReference<byte[]> data = new AtomicReference<>();
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        ingestPipeline.onAllShards(() -> {
+            try {
+                data.set(encode(locationLog.drainedPosition(LOG_DRAIN_TIMEOUT_MS)));
+            } catch (IOException e) {
+                failure.set(e);
+            }
+        }).join();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        long encoded = System.nanoTime();
+
+        Path path = Paths.get(file).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            out.write(data.get());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        log.info("💾 Snapshot: {} forces, {} KB (paused ingest {} ms, total {} ms)",
+                states.size(), data.get().length / 1024, (encoded - start) / 1_000_000,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * header: int magic, int version, long createdAt, long logSegmentId (-1 = אין), int logIndex, int forceCount
+     * לכל כוח: UTF id, boolean hasLocation [UTF type, UTF name, double lat, double lng, long timestamp],
+     *          long lastUpdateTime, 20 x double מצב Kalman, int pointCount, נקודות (double lat, double lng, long ts),
+     *          5 x double מצב ה-EWMA של המסלול
+     */
+    private byte[] encode(LocationLog.Position position) throws IOException {
+        List<ForceState> snapshot = new ArrayList<>(states.getAll());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(bytes, BUFFER_SIZE));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        out.writeLong(position != null ? position.getSegmentId() : -1);
+        out.writeInt(position != null ? position.getIndex() : 0);
+        out.writeInt(snapshot.size());
+
+        KalmanBank bank = states.getKalmanBank();
+        double[] kalman = new double[KalmanBank.SLOT_STATE_SIZE];
+        double[] smoothing = new double[ForceTrajectory.SMOOTHING_STATE_SIZE];
+        for (ForceState state : snapshot) {
+            out.writeUTF(state.getForceId());
+            ForceLocation location = state.getLocation();
+            out.writeBoolean(location != null);
+            if (location != null) {
+                out.writeUTF(location.getType() != null ? location.getType() : "");
+                out.writeUTF(location.getName() != null ? location.getName() : "");
+                out.writeDouble(location.getLatitude());
+                out.writeDouble(location.getLongitude());
+                out.writeLong(location.getTimestamp());
+            }
+            out.writeLong(state.getLastUpdateTime());
+
+            bank.exportSlot(state.getKalmanSlot(), kalman);
+            for (double value : kalman) {
+                out.writeDouble(value);
+            }
+
+            ForceTrajectory trajectory = state.getTrajectory();
+            int count = trajectory.getLocationCount();
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeDouble(trajectory.getLatitude(i));
+                out.writeDouble(trajectory.getLongitude(i));
+                out.writeLong(trajectory.getTimestamp(i));
+            }
+            trajectory.exportSmoothing(smoothing);
+            for (double value : smoothing) {
+                out.writeDouble(value);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private int readForces(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        KalmanBank bank = states.getKalmanBank();
+        double[] kalman = new double[KalmanBank.SLOT_STATE_SIZE];
+        double[] smoothing = new double[ForceTrajectory.SMOOTHING_STATE_SIZE];
+        for (int f = 0; f < count; f++) {
+            ForceState state = states.getOrCreate(in.readUTF());
+            if (in.readBoolean()) {
+                ForceLocation location = new ForceLocation();
+                location.setId(state.getForceId());
+                location.setType(in.readUTF());
+                location.setName(in.readUTF());
+                location.setLatitude(in.readDouble());
+                location.setLongitude(in.readDouble());
+                location.setTimestamp(in.readLong());
+                state.setLocation(location);
+            }
+            state.setLastUpdateTime(in.readLong());
+
+            for (int i = 0; i < kalman.length; i++) {
+                kalman[i] = in.readDouble();
+            }
+            bank.importSlot(state.getKalmanSlot(), kalman);
+
+            ForceTrajectory trajectory = states.newTrajectory(state.getForceId());
+            int points = in.readInt();
+            for (int i = 0; i < points; i++) {
+                trajectory.addLocation(in.readDouble(), in.readDouble(), in.readLong());
+            }
+            for (int i = 0; i < smoothing.length; i++) {
+                smoothing[i] = in.readDouble();
+            }
+            trajectory.importSmoothing(smoothing);
+            state.setTrajectory(trajectory);
+        }
+        return count;
+    }
+
+    // רשומה מהלוג אחרי המיקום שב-snapshot: מוחלת תמיד, באותו נתיב כמו בקליטה - כולל מיקומים
+    // באותה מילישנייה או בסדר הפוך, שהמסלול מצמיד לזמן האחרון (Math.max) כמו אז
+    // החלת רשומות הלוג על המצב, לפי סדר הכתיבה - מיקומים, מחיקות ואיפוסי מסלול
+    private class LogReplay implements LocationLog.RecordHandler {
+
+        @Override
+        public void location(String forceId, String type, long timestamp, double latitude, double longitude) {
+            ForceState state = states.get(forceId);
+            ForceLocation previous = state != null ? state.getLocation() : null;
+            ForceLocation location = new ForceLocation();
+            location.setId(forceId);
+            // בלוג נשמר רק קוד הסוג - סוג שאינו מוכר נשאר כמו שהיה
+            location.setType(previous != null && LocationFrame.typeCode(previous.getType()) == LocationFrame.typeCode(type)
+                    ? previous.getType() : type);
+            location.setName(previous != null ? previous.getName() : forceId);
+            location.setLatitude(latitude);
+            location.setLongitude(longitude);
+            location.setTimestamp(timestamp);
+
+            // אותו נתיב כמו בקליטה, כך שהמסלול ומצב הפילטר זהים למה שהיה לפני הכיבוי
+            state = forceService.updateLocation(location);
+            trajectoryService.addLocation(state, latitude, longitude, timestamp);
+        }
+
+        @Override
+        public void removed(String forceId) {
+            if (forceId != null) {
+                forceService.removeForce(forceId);
+            } else {
+                forceService.clearAllForces();
+            }
+        }
+
+        @Override
+        public void trajectoryReset(String forceId) {
+            if (forceId != null) {
+                trajectoryService.removeTrajectory(forceId);
+            } else {
+                trajectoryService.clearAll();
+            }
+        }
+    }
+}
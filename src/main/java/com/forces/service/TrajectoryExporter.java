@@ -0,0 +1,124 @@
+package com.forces.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.forces.model.ForceState;
+import com.forces.model.ForceTrajectory;
+import com.forces.model.PolylineEncoder;
+import com.forces.repository.ForceStateStore;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * ייצוא היסטוריית מסלולים שנכתב ישירות ל-stream, רשומה אחר רשומה מהמפה החיה - בלי להעתיק
+ * את מפת המסלולים ובלי לבנות את כל התשובה בזיכרון.
+ * בקידוד polyline (ראה PolylineEncoder) כל מסלול מקודד מה-ring buffer שלו ל-StringBuilder
+ * משותף, בלי ליצור LocationPoint.
+ *
+ * הקריאה לא עוצרת את ה-thread הכותב - מיקום שנוסף בזמן הקידוד יכול להזיז את החלון בנקודה,
+ * כמו בשאר הקריאות של המסלול.
+ */
+@Service
+public class TrajectoryExporter {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ForceStateStore states;
+
+    private ObjectWriter trajectoryWriter;
+
+    @PostConstruct
+    public void init() {
+        // בלי flush אחרי כל מסלול - ה-generator וה-response מנהלים את ה-buffer
+        trajectoryWriter = objectMapper.writerFor(ForceTrajectory.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * {"force-1": {ForceTrajectory}, ...} - אותו מבנה כמו מפת המסלולים ב-JSON
+     */
+    public void writeAll(OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartObject();
+            for (ForceState state : states.getAll()) {
+                ForceTrajectory trajectory = state.getTrajectory();
+                if (trajectory.getLocationCount() == 0) {
+                    continue;
+                }
+                generator.writeFieldName(state.getForceId());
+                trajectoryWriter.writeValue(generator, trajectory);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * {"forceId": "...", "precision": 5, "count": N, "path": "...", "times": "..."}
+     */
+    public void writeEncoded(ForceTrajectory trajectory, int precision, OutputStream out) throws IOException {
+        double factor = PolylineEncoder.factor(precision);
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("forceId", trajectory.getForceId());
+            generator.writeNumberField("precision", precision);
+            writeFields(generator, trajectory, factor, new StringBuilder());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * {"precision": 5, "trajectories": [{"forceId": "...", "count": N, "path": "...", "times": "..."}, ...]}
+     */
+    public void writeAllEncoded(int precision, OutputStream out) throws IOException {
+        double factor = PolylineEncoder.factor(precision);
+        StringBuilder buffer = new StringBuilder();
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("precision", precision);
+            generator.writeArrayFieldStart("trajectories");
+            for (ForceState state : states.getAll()) {
+                ForceTrajectory trajectory = state.getTrajectory();
+                if (trajectory.getLocationCount() == 0) {
+                    continue;
+                }
+                generator.writeStartObject();
+                generator.writeStringField("forceId", state.getForceId());
+                writeFields(generator, trajectory, factor, buffer);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    // ה-stream שייך למי שקרא (למשל gzip שצריך finish אחרי הכתיבה)
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        return objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private void writeFields(JsonGenerator generator, ForceTrajectory trajectory, double factor,
+                             StringBuilder buffer) throws IOException {
+        int count = trajectory.getLocationCount();
+        generator.writeNumberField("count", count);
+
+        buffer.setLength(0);
+        PolylineEncoder.encodePath(trajectory, count, factor, buffer);
+        generator.writeStringField("path", buffer.toString());
+
+        buffer.setLength(0);
+        PolylineEncoder.encodeTimes(trajectory, count, buffer);
+        generator.writeStringField("times", buffer.toString());
+    }
+}
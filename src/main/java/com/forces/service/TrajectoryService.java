@@ -1,83 +1,194 @@
 package com.forces.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.forces.algorithm.KalmanFilter;
+import com.forces.algorithm.KalmanBank;
+import com.forces.metrics.TrackingMetrics;
+import com.forces.model.BatchPredictionResult;
+import com.forces.model.ForceLocation;
+import com.forces.model.ForceState;
 import com.forces.model.ForceTrajectory;
 import com.forces.model.PredictionResult;
+import com.forces.repository.ForceStateStore;
 
 @Service
 public class TrajectoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrajectoryService.class);
+
+    // מספר נקודות החיזוי במסלול
+    private static final int PREDICTION_STEPS = 10;
+
+    // חיזוי מרוכז לפחות כוחות מזה רץ ב-thread הנוכחי - לא שווה את התיאום של fork-join
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    // טווח החיזוי המקסימלי - מעבר לשעה מודל מהירות קבועה כבר לא אומר כלום
+    public static final int MAX_PREDICTION_SECONDS = 3600;
+
+    @Autowired
+    private TrackingMetrics metrics;
     
-    // אחסון מסלולים לכל כוח
-    private final Map<String, ForceTrajectory> trajectories = new ConcurrentHashMap<>();
-    
-    // Kalman Filter לכל כוח
-    private final Map<String, KalmanFilter> kalmanFilters = new ConcurrentHashMap<>();
-    
-    // זמן המדידה הקודמת לכל כוח
-    private final Map<String, Long> lastUpdateTimes = new ConcurrentHashMap<>();
+    // המצב של כל כוח (מסלול, slot ב-KalmanBank, זמן מדידה קודמת) ברשומה אחת
+    @Autowired
+    private ForceStateStore states;
+
+    // כמה ערכי secondsAhead שונים נשמרים בחיזוי השמור של כל כוח
+    @Value("${tracking.prediction.cache-entries-per-force:4}")
+    private int predictionCacheEntries = 4;
 
     /**
      * הוספת מיקום חדש לכוח
      */
     public void addLocation(String forceId, double latitude, double longitude) {
-        long currentTime = System.currentTimeMillis();
-        
-        // יצירת trajectory אם לא קיים
-        trajectories.putIfAbsent(forceId, new ForceTrajectory(forceId));
-        ForceTrajectory trajectory = trajectories.get(forceId);
-        
+        addLocation(states.getOrCreate(forceId), latitude, longitude);
+    }
+
+    /**
+     * הוספת מיקום לכוח שהרשומה שלו כבר בידינו - בלי חיפוש נוסף במפה
+     */
+    public void addLocation(ForceState state, double latitude, double longitude) {
+        addLocation(state, latitude, longitude, System.currentTimeMillis());
+    }
+
+    /**
+     * הוספת מיקום לפי זמן המדידה - גם ה-deltaTime של Kalman נמדד ממנו, כך ששחזור מהלוג
+     * נותן בדיוק את אותו מצב. זמן מוקדם מהמדידה הקודמת של הכוח נחשב כזמן שלה.
+     */
+    public void addLocation(ForceState state, double latitude, double longitude, long timestamp) {
+        long currentTime = Math.max(timestamp, state.getLastUpdateTime());
+
         // הוספת המיקום
-        trajectory.addLocation(latitude, longitude, currentTime);
+        state.getTrajectory().addLocation(latitude, longitude, currentTime);
         
         // עדכון Kalman Filter
-        updateKalmanFilter(forceId, latitude, longitude, currentTime);
+        updateKalmanFilter(state, latitude, longitude, currentTime);
+        
+        // החיזויים השמורים חושבו על המצב הקודם
+        state.invalidatePredictions();
         
-        System.out.println("📊 Added location for " + forceId + 
-                         ": [" + latitude + ", " + longitude + "]");
+        metrics.fixesIngested(1);
+        if (log.isTraceEnabled()) {
+            log.trace("📊 Added location for {}: [{}, {}]", state.getForceId(), latitude, longitude);
+        }
     }
 
     /**
-     * עדכון Kalman Filter
+     * הוספת קבוצת מיקומים
+     */
+    public void addLocations(List<ForceLocation> locations) {
+        ForceState[] targets = new ForceState[locations.size()];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = states.getOrCreate(locations.get(i).getId());
+        }
+        addLocations(locations, targets);
+    }
+
+    /**
+     * הוספת קבוצת מיקומים, כשהרשומה של כל מיקום נתונה (targets[i] שייך ל-locations[i]).
+     * כל עדכוני ה-Kalman מתבצעים במעבר אחד על ה-KalmanBank; הזמנים לפי זמן המדידה של כל מיקום.
      */
-    private void updateKalmanFilter(String forceId, double lat, double lng, long currentTime) {
-        // יצירת filter אם לא קיים
-        kalmanFilters.putIfAbsent(forceId, new KalmanFilter());
-        KalmanFilter filter = kalmanFilters.get(forceId);
+    public void addLocations(List<ForceLocation> locations, ForceState[] targets) {
+        int count = locations.size();
+        int[] slots = new int[count];
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        double[] dts = new double[count];
         
+        for (int i = 0; i < count; i++) {
+            ForceLocation location = locations.get(i);
+            ForceState state = targets[i];
+            long lastTime = state.getLastUpdateTime();
+            long currentTime = Math.max(location.getTimestamp(), lastTime);
+
+            state.getTrajectory().addLocation(location.getLatitude(), location.getLongitude(), currentTime);
+
+            state.setLastUpdateTime(currentTime);
+            slots[i] = state.getKalmanSlot();
+            lats[i] = location.getLatitude();
+            lngs[i] = location.getLongitude();
+            dts[i] = lastTime != 0 ? (currentTime - lastTime) / 1000.0 : 1.0;
+        }
+        
+        long start = System.nanoTime();
+        states.getKalmanBank().updateAll(slots, lats, lngs, dts, count);
+        metrics.kalmanBatchUpdate(System.nanoTime() - start);
+        for (ForceState state : targets) {
+            state.invalidatePredictions();
+        }
+        metrics.fixesIngested(count);
+        
+        if (log.isDebugEnabled()) {
+            log.debug("📊 Added {} locations (batch)", count);
+        }
+    }
+
+    /**
+     * עדכון Kalman Filter
+     */
+    private void updateKalmanFilter(ForceState state, double lat, double lng, long currentTime) {
         // חישוב הזמן שעבר מהמדידה הקודמת
-        Long lastTime = lastUpdateTimes.get(forceId);
+        long lastTime = state.getLastUpdateTime();
         double deltaTime = 1.0; // ברירת מחדל: שנייה אחת
         
-        if (lastTime != null) {
+        if (lastTime != 0) {
             deltaTime = (currentTime - lastTime) / 1000.0; // המרה לשניות
         }
         
         // עדכון הפילטר
-        filter.update(lat, lng, deltaTime);
-        lastUpdateTimes.put(forceId, currentTime);
+        long start = System.nanoTime();
+        states.getKalmanBank().update(state.getKalmanSlot(), lat, lng, deltaTime);
+        metrics.kalmanUpdate(System.nanoTime() - start);
+        state.setLastUpdateTime(currentTime);
         
-        System.out.println("🔮 Kalman filter updated for " + forceId + 
-                         " (deltaTime: " + deltaTime + "s)");
+        if (log.isTraceEnabled()) {
+            log.trace("🔮 Kalman filter updated for {} (deltaTime: {}s)", state.getForceId(), deltaTime);
+        }
+    }
+
+    /**
+     * האם טווח החיזוי תקין: חיובי ועד MAX_PREDICTION_SECONDS
+     */
+    public static boolean isValidHorizon(int secondsAhead) {
+        return secondsAhead > 0 && secondsAhead <= MAX_PREDICTION_SECONDS;
     }
 
     /**
      * קבלת חיזוי מסלול לכוח
      */
     public PredictionResult predictTrajectory(String forceId, int secondsAhead) {
-        ForceTrajectory trajectory = trajectories.get(forceId);
-        KalmanFilter filter = kalmanFilters.get(forceId);
+        ForceState state = states.get(forceId);
+        if (state == null) {
+            return null;
+        }
         
-        if (trajectory == null || filter == null || trajectory.getLocationCount() < 2) {
+        // אותו חיזוי כבר חושב ולא הגיעה מאז מדידה חדשה
+        PredictionResult cached = state.getCachedPrediction(secondsAhead);
+        if (cached != null) {
+            metrics.predictionCacheHit();
+            metrics.predictionServed();
+            return cached;
+        }
+        long version = state.getVersion();
+        
+        ForceTrajectory trajectory = state.getTrajectory();
+        if (trajectory.getLocationCount() < 2) {
             return null; // אין מספיק נתונים
         }
+        KalmanBank kalmanBank = states.getKalmanBank();
+        int slot = state.getKalmanSlot();
         
         PredictionResult result = new PredictionResult();
         result.setForceId(forceId);
@@ -92,16 +203,18 @@ public class TrajectoryService {
         result.setCurrentPosition(currentPos);
         
         // חיזוי מסלול
-        List<PredictionResult.Position> predictedPath = new ArrayList<>();
-        int steps = 10; // 10 נקודות חיזוי
-        double timeStep = secondsAhead / (double) steps;
+        // מצב הפילטר הוא של רגע המדידה האחרונה, ולכן הזמנים נמדדים ממנה -
+        // כך החיזוי נשאר נכון (וניתן לשמירה) עד המדידה הבאה
+        List<PredictionResult.Position> predictedPath = new ArrayList<>(PREDICTION_STEPS);
+        double timeStep = secondsAhead / (double) PREDICTION_STEPS;
+        long baseTime = lastLocation.getTimestamp();
         
-        for (int i = 1; i <= steps; i++) {
-            double[] futurePos = filter.predictFuturePosition(i * timeStep);
+        for (int i = 1; i <= PREDICTION_STEPS; i++) {
+            double[] futurePos = kalmanBank.predictFuturePosition(slot, i * timeStep);
             PredictionResult.Position pos = new PredictionResult.Position(
                 futurePos[0],
                 futurePos[1],
-                System.currentTimeMillis() + (long)(i * timeStep * 1000)
+                baseTime + (long)(i * timeStep * 1000)
             );
             predictedPath.add(pos);
         }
@@ -115,45 +228,130 @@ public class TrajectoryService {
         double confidence = Math.min(1.0, trajectory.getLocationCount() / 10.0);
         result.setConfidence(confidence);
         
-        System.out.println("🎯 Predicted trajectory for " + forceId + 
-                         " (" + secondsAhead + "s ahead, confidence: " + 
-                         String.format("%.2f", confidence) + ")");
+        state.cachePrediction(secondsAhead, version, result, predictionCacheEntries);
+        metrics.predictionCacheMiss();
+        metrics.predictionServed();
+        if (log.isTraceEnabled()) {
+            log.trace("🎯 Predicted trajectory for {} ({}s ahead, confidence: {})", forceId, secondsAhead, confidence);
+        }
         
         return result;
     }
 
     /**
-     * קבלת כל המסלולים
+     * חיזוי לרשימת כוחות בבקשה אחת (כוחות בלי מספיק נתונים לא מופיעים בתשובה)
      */
-    public Map<String, ForceTrajectory> getAllTrajectories() {
-        return new HashMap<>(trajectories);
+    public BatchPredictionResult predictTrajectories(List<String> forceIds, int secondsAhead) {
+        Stream<String> ids = forceIds.size() >= PARALLEL_THRESHOLD ? forceIds.parallelStream() : forceIds.stream();
+        return predictBatch(ids.map(states::get), secondsAhead);
+    }
+
+    /**
+     * חיזוי לכל הכוחות שהמיקום האחרון שלהם בתוך תיבת התחימה
+     */
+    public BatchPredictionResult predictTrajectoriesInBounds(double minLatitude, double minLongitude,
+                                                             double maxLatitude, double maxLongitude,
+                                                             int secondsAhead) {
+        Collection<ForceState> all = states.getAll();
+        Stream<ForceState> source = states.size() >= PARALLEL_THRESHOLD ? all.parallelStream() : all.stream();
+        return predictBatch(source.filter(state -> {
+            ForceLocation location = state.getLocation();
+            return location != null
+                    && location.getLatitude() >= minLatitude && location.getLatitude() <= maxLatitude
+                    && location.getLongitude() >= minLongitude && location.getLongitude() <= maxLongitude;
+        }), secondsAhead);
+    }
+
+    // כל הכוחות חוזו לאותן נקודות זמן - currentTimeMillis נקרא פעם אחת לכל הבקשה
+    private BatchPredictionResult predictBatch(Stream<ForceState> source, int secondsAhead) {
+        long now = System.currentTimeMillis();
+        double timeStep = secondsAhead / (double) PREDICTION_STEPS;
+        long[] timestamps = new long[PREDICTION_STEPS];
+        for (int i = 1; i <= PREDICTION_STEPS; i++) {
+            timestamps[i - 1] = now + (long) (i * timeStep * 1000);
+        }
+
+        List<BatchPredictionResult.ForcePrediction> predictions = source
+                .filter(Objects::nonNull)
+                .map(state -> predictCompact(state, now, timeStep))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        metrics.predictionsServed(predictions.size());
+        if (log.isDebugEnabled()) {
+            log.debug("🎯 Predicted {} trajectories ({}s ahead, batch)", predictions.size(), secondsAhead);
+        }
+        return new BatchPredictionResult(now, timestamps, predictions);
+    }
+
+    private BatchPredictionResult.ForcePrediction predictCompact(ForceState state, long now, double timeStep) {
+        ForceTrajectory trajectory = state.getTrajectory();
+        int count = trajectory.getLocationCount();
+        if (count < 2) {
+            return null; // אין מספיק נתונים
+        }
+
+        // מצב הפילטר הוא של רגע המדידה האחרונה; הנקודות מחושבות לזמנים המשותפים
+        double sinceLastFix = (now - trajectory.getTimestamp(count - 1)) / 1000.0;
+
+        // קריאה אחת של מצב הפילטר, וכל הנקודות מחושבות ממנה
+        double[] kalman = states.getKalmanBank().getState(state.getKalmanSlot());
+        double[] path = new double[PREDICTION_STEPS * 2];
+        for (int i = 1; i <= PREDICTION_STEPS; i++) {
+            double t = sinceLastFix + i * timeStep;
+            path[(i - 1) * 2] = kalman[0] + kalman[2] * t;
+            path[(i - 1) * 2 + 1] = kalman[1] + kalman[3] * t;
+        }
+
+        BatchPredictionResult.ForcePrediction prediction = new BatchPredictionResult.ForcePrediction();
+        prediction.setForceId(state.getForceId());
+        prediction.setLatitude(trajectory.getLatitude(count - 1));
+        prediction.setLongitude(trajectory.getLongitude(count - 1));
+        prediction.setTimestamp(trajectory.getTimestamp(count - 1));
+        prediction.setPath(path);
+        prediction.setSpeed(trajectory.getAverageSpeed());
+        prediction.setHeading(trajectory.getCurrentHeading());
+        prediction.setConfidence(Math.min(1.0, count / 10.0));
+        return prediction;
     }
 
     /**
      * קבלת מסלול ספציפי
      */
     public ForceTrajectory getTrajectory(String forceId) {
-        return trajectories.get(forceId);
+        ForceState state = states.get(forceId);
+        if (state == null || state.getTrajectory().getLocationCount() == 0) {
+            return null;
+        }
+        return state.getTrajectory();
     }
 
     /**
-     * מחיקת מסלול
+     * מחיקת מסלול: ההיסטוריה ומצב הפילטר מתאפסים, המיקום האחרון של הכוח נשאר
      */
     public void removeTrajectory(String forceId) {
-        trajectories.remove(forceId);
-        kalmanFilters.remove(forceId);
-        lastUpdateTimes.remove(forceId);
-        System.out.println("🗑️  Removed trajectory for " + forceId);
+        ForceState state = states.get(forceId);
+        if (state != null) {
+            resetTrajectory(state);
+        }
+        log.info("🗑️  Removed trajectory for {}", forceId);
     }
 
     /**
      * ניקוי כל המסלולים
      */
     public void clearAll() {
-        trajectories.clear();
-        kalmanFilters.clear();
-        lastUpdateTimes.clear();
-        System.out.println("🧹 Cleared all trajectories");
+        for (ForceState state : states.getAll()) {
+            resetTrajectory(state);
+        }
+        log.info("🧹 Cleared all trajectories");
+    }
+
+    private void resetTrajectory(ForceState state) {
+        state.setTrajectory(states.newTrajectory(state.getForceId()));
+        states.getKalmanBank().reset(state.getKalmanSlot());
+        state.setLastUpdateTime(0);
+        state.invalidatePredictions();
     }
 
     /**
@@ -161,15 +359,20 @@ public class TrajectoryService {
      */
     public Map<String, Object> getStatistics() {
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalForces", trajectories.size());
         
+        int totalForces = 0;
         int totalPoints = 0;
-        for (ForceTrajectory trajectory : trajectories.values()) {
-            totalPoints += trajectory.getLocationCount();
+        for (ForceState state : states.getAll()) {
+            int count = state.getTrajectory().getLocationCount();
+            if (count > 0) {
+                totalForces++;
+                totalPoints += count;
+            }
         }
+        stats.put("totalForces", totalForces);
         stats.put("totalLocationPoints", totalPoints);
         stats.put("averagePointsPerForce", 
-                  trajectories.isEmpty() ? 0 : totalPoints / trajectories.size());
+                  totalForces == 0 ? 0 : totalPoints / totalForces);
         
         return stats;
     }